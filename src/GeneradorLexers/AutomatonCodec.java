@@ -0,0 +1,289 @@
+package GeneradorLexers;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * La presente clase tiene como objetivo guardar un automata en un formato binario compacto y versionado, para poder
+ * cargarlo de disco en lugar de construirlo de nuevo a partir de su regex.
+ * Formato (los enteros son varints sin signo, salvo la precedencia que usa zigzag):
+ * - Encabezado: MAGIC (4 bytes) y VERSION.
+ * - Simbolos: cantidad y, por cada uno, su tipo (epsilon, conjunto de caracteres o etiqueta) y su contenido. Los
+ *   simbolos se guardan por contenido y se internan de nuevo al leer, porque los enteros de SymbolTable no son
+ *   estables entre ejecuciones.
+ * - Alfabeto: cantidad e indices a la tabla de simbolos.
+ * - Estados: cantidad y, por cada uno, id, banderas (inicial, final, con token), precedencia y tipo de token.
+ * - Transiciones: cantidad y, por cada una, indices de estado de origen y destino e indice de simbolo.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class AutomatonCodec {
+    /**
+     * Encabezado del formato
+     */
+    public static final int MAGIC = 0x41555444;  // "AUTD"
+    public static final int VERSION = 1;
+
+    private static final int SIMBOLO_EPSILON = 0;
+    private static final int SIMBOLO_CONJUNTO = 1;
+    private static final int SIMBOLO_ETIQUETA = 2;
+
+    private static final int ESTADO_INICIAL = 1;
+    private static final int ESTADO_FINAL = 2;
+    private static final int ESTADO_CON_TOKEN = 4;
+
+    private AutomatonCodec() {}
+
+    /**
+     * Escribe un automata en formato binario
+     * @param automata automata a guardar
+     * @param out destino, por ejemplo un DataOutputStream con buffer
+     * @throws IOException si el destino falla
+     */
+    public static void write(DirectedGraph automata, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        writeVarint(out, VERSION);
+
+        // Tabla de simbolos local: alfabeto y simbolos de las transiciones
+        BitSet simbolos = (BitSet) automata.getAlphabet().clone();
+        for (DirectedGraph.edgeContents edge: automata.getEdges()) simbolos.set(edge.getSymbol());
+        HashMap<Integer, Integer> indiceSimbolo = new HashMap<Integer, Integer>();
+        writeVarint(out, simbolos.cardinality());
+        for (int s = simbolos.nextSetBit(0); s >= 0; s = simbolos.nextSetBit(s + 1)) {
+            indiceSimbolo.put(s, indiceSimbolo.size());
+            CharSet conjunto = SymbolTable.charSet(s);
+            if (s == SymbolTable.EPSILON) {
+                writeVarint(out, SIMBOLO_EPSILON);
+            } else if (conjunto != null) {
+                writeVarint(out, SIMBOLO_CONJUNTO);
+                writeVarint(out, conjunto.getNumRanges());
+                int anterior = 0;
+                for (int r = 0; r < conjunto.getNumRanges(); r++) {
+                    // Intervalos ordenados: se guardan como distancias para que los varints sean cortos
+                    writeVarint(out, conjunto.getRangeStart(r) - anterior);
+                    writeVarint(out, conjunto.getRangeEnd(r) - conjunto.getRangeStart(r));
+                    anterior = conjunto.getRangeEnd(r);
+                }
+            } else {
+                writeVarint(out, SIMBOLO_ETIQUETA);
+                writeString(out, SymbolTable.label(s));
+            }
+        }
+
+        // Alfabeto
+        BitSet alfabeto = automata.getAlphabet();
+        writeVarint(out, alfabeto.cardinality());
+        for (int s = alfabeto.nextSetBit(0); s >= 0; s = alfabeto.nextSetBit(s + 1)) {
+            writeVarint(out, indiceSimbolo.get(s));
+        }
+
+        // Estados, en el orden de getAllNodes()
+        HashMap<DirectedGraph.NodeClass, Integer> indiceEstado = new HashMap<DirectedGraph.NodeClass, Integer>();
+        writeVarint(out, automata.getAllNodes().size());
+        for (DirectedGraph.NodeClass nodo: automata.getAllNodes()) {
+            indiceEstado.put(nodo, indiceEstado.size());
+            int banderas = (nodo.isStart() ? ESTADO_INICIAL : 0) | (nodo.isFinal() ? ESTADO_FINAL : 0)
+                    | (nodo.getTokenType() != null ? ESTADO_CON_TOKEN : 0);
+            writeVarint(out, nodo.getId());
+            writeVarint(out, banderas);
+            writeVarint(out, (nodo.getPrecedence() << 1) ^ (nodo.getPrecedence() >> 31));
+            if (nodo.getTokenType() != null) writeString(out, nodo.getTokenType());
+        }
+
+        // Transiciones, en el orden de getEdges(). Se omiten las que tocan nodos que no pertenecen al automata.
+        int numEdges = 0;
+        for (DirectedGraph.edgeContents edge: automata.getEdges()) {
+            if (indiceEstado.containsKey(edge.getStartingNode()) && indiceEstado.containsKey(edge.getFinishingNode())) numEdges++;
+        }
+        writeVarint(out, numEdges);
+        for (DirectedGraph.edgeContents edge: automata.getEdges()) {
+            Integer origen = indiceEstado.get(edge.getStartingNode());
+            Integer destino = indiceEstado.get(edge.getFinishingNode());
+            if (origen == null || destino == null) continue;
+            writeVarint(out, origen);
+            writeVarint(out, destino);
+            writeVarint(out, indiceSimbolo.get(edge.getSymbol()));
+        }
+    }
+
+    /**
+     * Lee un automata en formato binario
+     * @param in origen, por ejemplo un DataInputStream con buffer
+     * @return automata leido
+     * @throws IOException si el origen falla o no tiene el formato esperado
+     */
+    public static DirectedGraph read(DataInput in) throws IOException {
+        DirectedGraph automata = new DirectedGraph();
+        readInto(automata, in);
+        return automata;
+    }
+
+    /**
+     * Lee un automata en formato binario y agrega sus estados y transiciones a un automata vacio
+     * @param automata automata vacio que recibe el contenido
+     * @param in origen del automata
+     * @throws IOException si el origen falla o no tiene el formato esperado
+     */
+    static void readInto(DirectedGraph automata, final DataInput in) throws IOException {
+        read(automata, new Entrada() {
+            public int readByte() throws IOException {
+                return in.readUnsignedByte();
+            }
+
+            public void readFully(byte[] bytes) throws IOException {
+                in.readFully(bytes);
+            }
+        });
+    }
+
+    /**
+     * Lee un automata en formato binario desde un buffer, por ejemplo un archivo mapeado en memoria. Lee desde la
+     * posicion actual del buffer y la avanza.
+     * @param buffer origen del automata
+     * @return automata leido
+     * @throws IOException si el buffer no tiene el formato esperado
+     */
+    public static DirectedGraph read(final ByteBuffer buffer) throws IOException {
+        DirectedGraph automata = new DirectedGraph();
+        read(automata, new Entrada() {
+            public int readByte() throws IOException {
+                if (!buffer.hasRemaining()) throw new EOFException();
+                return buffer.get() & 0xFF;
+            }
+
+            public void readFully(byte[] bytes) throws IOException {
+                if (buffer.remaining() < bytes.length) throw new EOFException();
+                buffer.get(bytes);
+            }
+        });
+        return automata;
+    }
+
+    /**
+     * Guarda un automata en un archivo
+     * @param automata automata a guardar
+     * @param archivo archivo destino
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static void save(DirectedGraph automata, File archivo) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archivo)))) {
+            write(automata, out);
+        }
+    }
+
+    /**
+     * Carga un automata de un archivo mapeandolo en memoria
+     * @param archivo archivo guardado con save()
+     * @return automata leido
+     * @throws IOException si no se puede leer el archivo o no tiene el formato esperado
+     */
+    public static DirectedGraph load(File archivo) throws IOException {
+        try (FileChannel canal = new FileInputStream(archivo).getChannel()) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return read(buffer);
+        }
+    }
+
+    /**
+     * Origen de bytes comun a DataInput y ByteBuffer
+     */
+    private interface Entrada {
+        int readByte() throws IOException;
+
+        void readFully(byte[] bytes) throws IOException;
+    }
+
+    private static void read(DirectedGraph automata, Entrada in) throws IOException {
+        int magic = 0;
+        for (int i = 0; i < 4; i++) magic = (magic << 8) | in.readByte();
+        if (magic != MAGIC) throw new IOException("Error: el archivo no contiene un automata");
+        int version = readVarint(in);
+        if (version != VERSION) throw new IOException("Error: version de automata no soportada (" + version + ")");
+
+        // Simbolos, internados en la tabla de este proceso
+        int[] simbolos = new int[readVarint(in)];
+        for (int i = 0; i < simbolos.length; i++) {
+            int tipo = readVarint(in);
+            if (tipo == SIMBOLO_EPSILON) {
+                simbolos[i] = SymbolTable.EPSILON;
+            } else if (tipo == SIMBOLO_CONJUNTO) {
+                int numRangos = readVarint(in);
+                int[] pares = new int[2 * numRangos];
+                int anterior = 0;
+                for (int r = 0; r < numRangos; r++) {
+                    pares[2 * r] = anterior + readVarint(in);
+                    pares[2 * r + 1] = pares[2 * r] + readVarint(in);
+                    anterior = pares[2 * r + 1];
+                }
+                simbolos[i] = SymbolTable.intern(CharSet.fromPairs(pares, pares.length));
+            } else if (tipo == SIMBOLO_ETIQUETA) {
+                simbolos[i] = SymbolTable.intern(readString(in));
+            } else {
+                throw new IOException("Error: tipo de simbolo desconocido (" + tipo + ")");
+            }
+        }
+
+        // Alfabeto
+        BitSet alfabeto = new BitSet();
+        int tamanoAlfabeto = readVarint(in);
+        for (int i = 0; i < tamanoAlfabeto; i++) alfabeto.set(simbolos[readVarint(in)]);
+        automata.setAlphabet(alfabeto);
+
+        // Estados
+        DirectedGraph.NodeClass[] nodos = new DirectedGraph.NodeClass[readVarint(in)];
+        for (int i = 0; i < nodos.length; i++) {
+            int id = readVarint(in);
+            int banderas = readVarint(in);
+            int zigzag = readVarint(in);
+            DirectedGraph.NodeClass nodo = automata.new NodeClass(id, (banderas & ESTADO_INICIAL) != 0, (banderas & ESTADO_FINAL) != 0);
+            nodo.setPrecedence((zigzag >>> 1) ^ -(zigzag & 1));
+            if ((banderas & ESTADO_CON_TOKEN) != 0) nodo.setTokenType(readString(in));
+            automata.addNode(automata, nodo);
+            nodos[i] = nodo;
+        }
+
+        // Transiciones
+        int numEdges = readVarint(in);
+        for (int i = 0; i < numEdges; i++) {
+            DirectedGraph.NodeClass origen = nodos[readVarint(in)];
+            DirectedGraph.NodeClass destino = nodos[readVarint(in)];
+            automata.addEdges(automata, origen, destino, simbolos[readVarint(in)]);
+        }
+    }
+
+    static void writeVarint(DataOutput out, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            out.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.writeByte(valor);
+    }
+
+    private static int readVarint(Entrada in) throws IOException {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+            int b = in.readByte();
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) return valor;
+        }
+        throw new IOException("Error: varint demasiado largo");
+    }
+
+    private static void writeString(DataOutput out, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(Entrada in) throws IOException {
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,134 @@
+package GeneradorLexers;
+
+import java.io.Serializable;
+
+/**
+ * La presente clase tiene como objetivo resumir la forma y el tamaño de un automata con numeros baratos de obtener:
+ * estados, transiciones, transiciones epsilon, histograma de grado de salida, tamaño del alfabeto, estados de
+ * aceptacion y una estimacion de la memoria retenida. Sirve para detectar cuando un cambio en una especificacion hace
+ * crecer demasiado un automata, sin construir la descripcion completa en texto.
+ * La memoria es aproximada: supone una JVM de 64 bits con referencias comprimidas y no cuenta objetos compartidos
+ * con otros automatas (por ejemplo, las etiquetas de SymbolTable).
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class AutomatonStats implements Serializable {
+    /**
+     * Tamaños aproximados usados en las estimaciones, en bytes
+     */
+    static final int HEADER = 12;  // Encabezado de objeto
+    static final int REFERENCE = 4;  // Referencia comprimida
+    static final int ARRAY_HEADER = 16;
+    static final int LINKED_LIST = 32;  // Objeto LinkedList vacio
+    static final int LINKED_LIST_NODE = 24;
+    static final int HASH_MAP = 48;  // Objeto HashMap vacio, sin tabla
+    static final int HASH_MAP_NODE = 32;
+    static final int ARRAY_LIST = 24;  // Objeto ArrayList vacio, sin arreglo
+    static final int INTEGER = 16;
+
+    /**
+     * Atributos
+     */
+    private final int numStates;
+    private final int numEdges;  // Todas las transiciones, epsilon incluidas
+    private final int numEpsilonEdges;
+    private final int[] outDegreeHistogram;  // outDegreeHistogram[g] = cantidad de estados con g transiciones salientes
+    private final int alphabetSize;
+    private final int numAcceptStates;
+    private final long estimatedBytes;
+
+    /**
+     * Constructor
+     * @param numStates cantidad de estados
+     * @param numEdges cantidad de transiciones, epsilon incluidas
+     * @param numEpsilonEdges cantidad de transiciones epsilon
+     * @param outDegrees grado de salida de cada estado
+     * @param alphabetSize cantidad de simbolos del alfabeto
+     * @param numAcceptStates cantidad de estados de aceptacion
+     * @param estimatedBytes memoria retenida estimada
+     */
+    AutomatonStats(int numStates, int numEdges, int numEpsilonEdges, int[] outDegrees, int alphabetSize,
+                   int numAcceptStates, long estimatedBytes) {
+        this.numStates = numStates;
+        this.numEdges = numEdges;
+        this.numEpsilonEdges = numEpsilonEdges;
+        this.alphabetSize = alphabetSize;
+        this.numAcceptStates = numAcceptStates;
+        this.estimatedBytes = estimatedBytes;
+
+        // Histograma de grados de salida
+        int maximo = 0;
+        for (int grado: outDegrees) maximo = Math.max(maximo, grado);
+        this.outDegreeHistogram = new int[outDegrees.length == 0 ? 0 : maximo + 1];
+        for (int grado: outDegrees) outDegreeHistogram[grado]++;
+    }
+
+    /**
+     * Memoria aproximada de un HashMap con cierta cantidad de entradas (tabla con factor de carga 0.75)
+     */
+    static long hashMapBytes(int entries) {
+        int tabla = 16;
+        while (entries > tabla * 3 / 4) tabla *= 2;
+        return HASH_MAP + array(tabla) + (long) entries * HASH_MAP_NODE;
+    }
+
+    /**
+     * Memoria aproximada de un LinkedList con cierta cantidad de elementos
+     */
+    static long linkedListBytes(int entries) {
+        return LINKED_LIST + (long) entries * LINKED_LIST_NODE;
+    }
+
+    /**
+     * Memoria aproximada de un arreglo de referencias o enteros
+     */
+    static long array(int length) {
+        long bytes = ARRAY_HEADER + 4L * length;
+        return (bytes + 7) & ~7L;
+    }
+
+    public int getNumStates() {
+        return numStates;
+    }
+
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    public int getNumEpsilonEdges() {
+        return numEpsilonEdges;
+    }
+
+    /**
+     * Devuelve el histograma de grados de salida: la posicion g tiene la cantidad de estados con g transiciones
+     * salientes
+     * @return copia del histograma
+     */
+    public int[] getOutDegreeHistogram() {
+        return outDegreeHistogram.clone();
+    }
+
+    public int getMaxOutDegree() {
+        return outDegreeHistogram.length == 0 ? 0 : outDegreeHistogram.length - 1;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    public int getNumAcceptStates() {
+        return numAcceptStates;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "Estados: " + numStates + ", transiciones: " + numEdges + " (epsilon: " + numEpsilonEdges + ")" +
+                ", grado maximo: " + getMaxOutDegree() + ", simbolos: " + alphabetSize +
+                ", aceptacion: " + numAcceptStates + ", memoria aprox.: " + estimatedBytes + " bytes";
+    }
+}
@@ -0,0 +1,395 @@
+package GeneradorLexers;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedList;
+
+/**
+ * La presente clase tiene como objetivo escribir la descripcion de un automata directamente en un Appendable (Writer,
+ * StringBuilder, etc.) en tiempo lineal, sin concatenar Strings. Existen tres formatos:
+ * - Texto: el mismo formato de automataDescription().
+ * - DOT: grafo de Graphviz, los estados de aceptacion con doble circulo.
+ * - JSON: estados, simbolos y transiciones.
+ * Para archivos grandes conviene pasar un BufferedWriter.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class AutomatonWriter {
+
+    private AutomatonWriter() {}
+
+    /**
+     * Escribe la descripcion en texto de un automata de lexer
+     * @param automata automata a describir
+     * @param out destino de la descripcion
+     * @throws IOException si el destino falla
+     */
+    public static void writeText(DirectedGraph automata, Appendable out) throws IOException {
+        // Nodos
+        LinkedList<DirectedGraph.NodeClass> nodos = automata.getAllNodes();
+        out.append("Estados: {");
+        int contador = 0;
+        for (DirectedGraph.NodeClass nodo: nodos) {
+            out.append(String.valueOf(nodo.getId()));
+            closeItem(out, contador++, nodos.size());
+        }
+        out.append("\t- Son ").append(String.valueOf(contador)).append(" estados\n");
+
+        // Nodo Inicial
+        writeIds(out, "Estado inicial: {", automata.getInicialNode());
+
+        // Nodo Final
+        writeIds(out, "Estado(s) de aceptacion: {", automata.getFinalNode());
+
+        // Simbolos
+        out.append("Simbolos: {");
+        contador = 0;
+        int tamanoAlfabeto = automata.getAlphabet().cardinality();
+        for (int i = automata.getAlphabet().nextSetBit(0); i >= 0; i = automata.getAlphabet().nextSetBit(i + 1)) {
+            out.append(SymbolTable.label(i));
+            closeItem(out, contador++, tamanoAlfabeto);
+        }
+
+        // Edges
+        LinkedList<DirectedGraph.edgeContents> edges = automata.getEdges();
+        out.append("Transiciones: {");
+        contador = 0;
+        for (DirectedGraph.edgeContents edge: edges) {
+            out.append('(').append(String.valueOf(edge.getStartingNode().getId())).append(", ")
+                    .append(edge.getTransition()).append(", ")
+                    .append(String.valueOf(edge.getFinishingNode().getId())).append(')');
+            closeItem(out, contador++, edges.size());
+        }
+        out.append("\t- Son ").append(String.valueOf(contador)).append(" transiciones.");
+    }
+
+    /**
+     * Escribe un automata de lexer como grafo DOT de Graphviz
+     * @param automata automata a describir
+     * @param out destino del grafo
+     * @throws IOException si el destino falla
+     */
+    public static void writeDot(DirectedGraph automata, Appendable out) throws IOException {
+        out.append("digraph automata {\n");
+        out.append("\trankdir=LR;\n");
+        out.append("\tnode [shape=circle];\n");
+
+        // Estados
+        for (DirectedGraph.NodeClass nodo: automata.getAllNodes()) {
+            out.append('\t').append(String.valueOf(nodo.getId()));
+            if (nodo.isFinal()) {
+                out.append(" [shape=doublecircle");
+                if (nodo.getTokenType() != null) {
+                    out.append(", xlabel=");
+                    dotString(out, nodo.getTokenType());
+                }
+                out.append(']');
+            }
+            out.append(";\n");
+        }
+
+        // Flechas hacia los estados iniciales
+        for (DirectedGraph.NodeClass nodo: automata.getInicialNode()) {
+            out.append("\tinicio").append(String.valueOf(nodo.getId())).append(" [shape=point];\n");
+            out.append("\tinicio").append(String.valueOf(nodo.getId())).append(" -> ")
+                    .append(String.valueOf(nodo.getId())).append(";\n");
+        }
+
+        // Transiciones
+        for (DirectedGraph.edgeContents edge: automata.getEdges()) {
+            out.append('\t').append(String.valueOf(edge.getStartingNode().getId())).append(" -> ")
+                    .append(String.valueOf(edge.getFinishingNode().getId())).append(" [label=");
+            dotString(out, edge.getTransition());
+            out.append("];\n");
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Escribe un automata de lexer como JSON
+     * @param automata automata a describir
+     * @param out destino del documento
+     * @throws IOException si el destino falla
+     */
+    public static void writeJson(DirectedGraph automata, Appendable out) throws IOException {
+        // Estados
+        out.append("{\"states\":[");
+        boolean primero = true;
+        for (DirectedGraph.NodeClass nodo: automata.getAllNodes()) {
+            if (!primero) out.append(',');
+            primero = false;
+            out.append("{\"id\":").append(String.valueOf(nodo.getId()))
+                    .append(",\"start\":").append(String.valueOf(nodo.isStart()))
+                    .append(",\"accept\":").append(String.valueOf(nodo.isFinal()));
+            if (nodo.getTokenType() != null) {
+                out.append(",\"tokenType\":");
+                jsonString(out, nodo.getTokenType());
+                out.append(",\"precedence\":").append(String.valueOf(nodo.getPrecedence()));
+            }
+            out.append('}');
+        }
+
+        // Simbolos
+        out.append("],\"alphabet\":[");
+        primero = true;
+        for (int i = automata.getAlphabet().nextSetBit(0); i >= 0; i = automata.getAlphabet().nextSetBit(i + 1)) {
+            if (!primero) out.append(',');
+            primero = false;
+            jsonString(out, SymbolTable.label(i));
+        }
+
+        // Transiciones
+        out.append("],\"edges\":[");
+        primero = true;
+        for (DirectedGraph.edgeContents edge: automata.getEdges()) {
+            if (!primero) out.append(',');
+            primero = false;
+            out.append("{\"from\":").append(String.valueOf(edge.getStartingNode().getId())).append(",\"label\":");
+            jsonString(out, edge.getTransition());
+            out.append(",\"to\":").append(String.valueOf(edge.getFinishingNode().getId()))
+                    .append(",\"epsilon\":").append(String.valueOf(edge.isEpsilon())).append('}');
+        }
+        out.append("]}\n");
+    }
+
+    /**
+     * Escribe la descripcion en texto de un automata de parser, incluyendo sus estados y la tabla SLR si existe
+     * @param automata automata a describir
+     * @param out destino de la descripcion
+     * @throws IOException si el destino falla
+     */
+    public static void writeText(PDFA automata, Appendable out) throws IOException {
+        // Nodos
+        LinkedList<PDFA.NodeClass> nodos = automata.getAllNodes();
+        out.append("Estados: {");
+        int contador = 0;
+        for (PDFA.NodeClass nodo: nodos) {
+            out.append(String.valueOf(nodo.getId()));
+            closeItem(out, contador++, nodos.size());
+        }
+        out.append("\t- Son ").append(String.valueOf(contador)).append(" estados\n");
+
+        // Nodo Inicial
+        out.append("Estado inicial: {");
+        contador = 0;
+        for (PDFA.NodeClass nodo: automata.getInicialNode()) {
+            out.append(String.valueOf(nodo.getId()));
+            closeItem(out, contador++, automata.getInicialNode().size());
+        }
+
+        // Nodo Final
+        out.append("Estado(s) de aceptacion: {");
+        contador = 0;
+        for (PDFA.NodeClass nodo: automata.getFinalNode()) {
+            out.append(String.valueOf(nodo.getId()));
+            closeItem(out, contador++, automata.getFinalNode().size());
+        }
+
+        // Simbolos
+        out.append("Simbolos: {");
+        contador = 0;
+        for (String simbolo: automata.getAlphabet()) {
+            out.append(simbolo);
+            closeItem(out, contador++, automata.getAlphabet().size());
+        }
+
+        // Edges
+        LinkedList<PDFA.edgeContents> edges = automata.getEdges();
+        out.append("Transiciones: {");
+        contador = 0;
+        for (PDFA.edgeContents edge: edges) {
+            out.append('(').append(String.valueOf(edge.getStartingNode().getId())).append(", ")
+                    .append(edge.getTransition()).append(", ")
+                    .append(String.valueOf(edge.getFinishingNode().getId())).append(')');
+            closeItem(out, contador++, edges.size());
+        }
+        out.append("\t- Son ").append(String.valueOf(contador)).append(" transiciones.");
+
+        // Descripcion de todos los estados
+        for (PDFA.NodeClass nodo: nodos) {
+            out.append("\n_____________________________\n");
+            writeState(nodo, out);
+            out.append("\n_____________________________\n");
+        }
+
+        // Si existe una tabla, agregarla
+        if (automata.getTableSLR() != null) {
+            out.append("\n\n");
+            automata.getTableSLR().writeTable(out);
+        }
+    }
+
+    /**
+     * Escribe un automata de parser como grafo DOT de Graphviz. Cada estado muestra los items de su kernel.
+     * @param automata automata a describir
+     * @param out destino del grafo
+     * @throws IOException si el destino falla
+     */
+    public static void writeDot(PDFA automata, Appendable out) throws IOException {
+        out.append("digraph automata {\n");
+        out.append("\trankdir=LR;\n");
+        out.append("\tnode [shape=box];\n");
+
+        // Estados
+        StringBuilder etiqueta = new StringBuilder();
+        for (PDFA.NodeClass nodo: automata.getAllNodes()) {
+            etiqueta.setLength(0);
+            etiqueta.append("I").append(nodo.getId()).append('\n');
+            for (Item item: nodo.kernel.getKernels()) {
+                etiqueta.append(item.toString()).append('\n');
+            }
+            out.append('\t').append(String.valueOf(nodo.getId())).append(" [label=");
+            dotString(out, etiqueta);
+            if (nodo.isFinal()) out.append(", peripheries=2");
+            out.append("];\n");
+        }
+
+        // Flechas hacia los estados iniciales
+        for (PDFA.NodeClass nodo: automata.getInicialNode()) {
+            out.append("\tinicio").append(String.valueOf(nodo.getId())).append(" [shape=point];\n");
+            out.append("\tinicio").append(String.valueOf(nodo.getId())).append(" -> ")
+                    .append(String.valueOf(nodo.getId())).append(";\n");
+        }
+
+        // Transiciones
+        for (PDFA.edgeContents edge: automata.getEdges()) {
+            out.append('\t').append(String.valueOf(edge.getStartingNode().getId())).append(" -> ")
+                    .append(String.valueOf(edge.getFinishingNode().getId())).append(" [label=");
+            dotString(out, edge.getTransition());
+            out.append("];\n");
+        }
+        out.append("}\n");
+    }
+
+    /**
+     * Escribe un automata de parser como JSON. Cada estado incluye su kernel y sus items.
+     * @param automata automata a describir
+     * @param out destino del documento
+     * @throws IOException si el destino falla
+     */
+    public static void writeJson(PDFA automata, Appendable out) throws IOException {
+        // Estados
+        out.append("{\"states\":[");
+        boolean primero = true;
+        for (PDFA.NodeClass nodo: automata.getAllNodes()) {
+            if (!primero) out.append(',');
+            primero = false;
+            out.append("{\"id\":").append(String.valueOf(nodo.getId()))
+                    .append(",\"start\":").append(String.valueOf(nodo.isStart()))
+                    .append(",\"accept\":").append(String.valueOf(nodo.isFinal()))
+                    .append(",\"kernel\":");
+            jsonItems(out, nodo.kernel.getKernels());
+            out.append(",\"items\":");
+            jsonItems(out, nodo.items);
+            out.append('}');
+        }
+
+        // Simbolos
+        out.append("],\"alphabet\":[");
+        primero = true;
+        for (String simbolo: automata.getAlphabet()) {
+            if (!primero) out.append(',');
+            primero = false;
+            jsonString(out, simbolo);
+        }
+
+        // Transiciones
+        out.append("],\"edges\":[");
+        primero = true;
+        for (PDFA.edgeContents edge: automata.getEdges()) {
+            if (!primero) out.append(',');
+            primero = false;
+            out.append("{\"from\":").append(String.valueOf(edge.getStartingNode().getId())).append(",\"label\":");
+            jsonString(out, edge.getTransition());
+            out.append(",\"to\":").append(String.valueOf(edge.getFinishingNode().getId())).append('}');
+        }
+        out.append("]}\n");
+    }
+
+    /**
+     * Escribe un estado del automata de parser con el formato de PDFA.NodeClass.toString()
+     */
+    private static void writeState(PDFA.NodeClass nodo, Appendable out) throws IOException {
+        out.append("Número de nodo: ").append(String.valueOf(nodo.getId())).append('\n');
+        out.append("Kernel: \n");
+        for (Item item: nodo.kernel.getKernels()) {
+            out.append("\t- ").append(item.toString()).append('\n');
+        }
+        out.append("Items: \n");
+        for (Item item: nodo.items) {
+            out.append("\t- ").append(item.toString()).append('\n');
+        }
+    }
+
+    /**
+     * Escribe los ids de un conjunto de nodos de lexer con el formato "Titulo: {1, 2}\n"
+     */
+    private static void writeIds(Appendable out, String titulo, Collection<DirectedGraph.NodeClass> nodos) throws IOException {
+        out.append(titulo);
+        int contador = 0;
+        for (DirectedGraph.NodeClass nodo: nodos) {
+            out.append(String.valueOf(nodo.getId()));
+            closeItem(out, contador++, nodos.size());
+        }
+    }
+
+    /**
+     * Separa un elemento del siguiente o cierra el conjunto si es el ultimo
+     */
+    private static void closeItem(Appendable out, int contador, int size) throws IOException {
+        if (contador < size - 1) out.append(", ");
+        else out.append("}\n");
+    }
+
+    private static void jsonItems(Appendable out, Collection<Item> items) throws IOException {
+        out.append('[');
+        boolean primero = true;
+        for (Item item: items) {
+            if (!primero) out.append(',');
+            primero = false;
+            jsonString(out, item.toString());
+        }
+        out.append(']');
+    }
+
+    /**
+     * Escribe un String de JSON entre comillas, escapando comillas, diagonales y caracteres de control
+     */
+    static void jsonString(Appendable out, CharSequence texto) throws IOException {
+        out.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Escribe un String de DOT entre comillas. Los saltos de linea se escriben como \l (alineados a la izquierda).
+     */
+    static void dotString(Appendable out, CharSequence texto) throws IOException {
+        out.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\l"); break;
+                case '\r': break;
+                case '\t': out.append("    "); break;
+                default: out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
@@ -1,7 +1,10 @@
 package GeneradorLexers;
 
 import java.io.Serializable;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 
 /**
  * A GeneradorLexers.BinaryTree consists of "nodes"--each "node" is itself a GeneradorLexers.BinaryTree.
@@ -21,7 +24,8 @@ public class BinaryTree  implements Serializable {
     private BinaryTree leftChild;
     private BinaryTree rightChild;
     private int position;
-    private HashSet<Integer> firstPos, lastPos, followPos;
+    private int symbol = -1;  // Simbolo de SymbolTable de las hojas
+    private BitSet firstPos, lastPos, followPos;  // Conjuntos de posiciones, un bit por posicion
     private boolean nullable;
 
     /**
@@ -35,9 +39,9 @@ public class BinaryTree  implements Serializable {
         this.value = value;
         this.leftChild = leftChild;
         this.rightChild = rightChild;
-        this.firstPos = new HashSet<Integer>();
-        this.lastPos = new HashSet<Integer>();
-        this.followPos = new HashSet<Integer>();
+        this.firstPos = new BitSet();
+        this.lastPos = new BitSet();
+        this.followPos = new BitSet();
         this.nullable = false;
     }
 
@@ -145,10 +149,22 @@ public class BinaryTree  implements Serializable {
         if (o == null || !(o instanceof BinaryTree)) {
             return false;
         }
-        BinaryTree otherTree = (BinaryTree) o;
-        return equals(value, otherTree.value)
-                && equals(leftChild, otherTree.getLeftChild())
-                && equals(rightChild, otherTree.getRightChild());
+
+        // Comparar los pares de nodos con una pila, sin recursion
+        ArrayList<BinaryTree> pila = new ArrayList<BinaryTree>();
+        pila.add(this);
+        pila.add((BinaryTree) o);
+        while (!pila.isEmpty()) {
+            BinaryTree otherTree = pila.remove(pila.size() - 1);
+            BinaryTree tree = pila.remove(pila.size() - 1);
+            if (tree == otherTree) continue;
+            if (tree == null || otherTree == null || !equals(tree.value, otherTree.value)) return false;
+            pila.add(tree.leftChild);
+            pila.add(otherTree.leftChild);
+            pila.add(tree.rightChild);
+            pila.add(otherTree.rightChild);
+        }
+        return true;
     }
 
     /**
@@ -176,12 +192,16 @@ public class BinaryTree  implements Serializable {
      *        be found within the binary tree rooted at <code>tree</code>.
      */
     protected boolean contains(BinaryTree tree, BinaryTree targetNode) {
-        if (tree == null)
-            return false;
-        if (tree == targetNode)
-            return true;
-        return contains(targetNode, tree.getLeftChild())
-                || contains(targetNode, tree.getRightChild());
+        ArrayList<BinaryTree> pila = new ArrayList<BinaryTree>();
+        pila.add(tree);
+        while (!pila.isEmpty()) {
+            BinaryTree actual = pila.remove(pila.size() - 1);
+            if (actual == null) continue;
+            if (actual == targetNode) return true;
+            pila.add(actual.getLeftChild());
+            pila.add(actual.getRightChild());
+        }
+        return false;
     }
 
     /**
@@ -191,20 +211,18 @@ public class BinaryTree  implements Serializable {
      * @return A String representation of this GeneradorLexers.BinaryTree.
      */
     public String toString() {
-        if (isLeaf()) {
-            return value;
-        }
-        else {
-            String root, left = "null", right = "null";
-            root = value;
-            if (getLeftChild() != null) {
-                left = getLeftChild().toString();
-            }
-            if (getRightChild() != null) {
-                right = getRightChild().toString();
+        // Armar el texto de cada nodo despues del de sus hijos
+        IdentityHashMap<BinaryTree, String> textos = new IdentityHashMap<BinaryTree, String>();
+        for (BinaryTree nodo: postOrder()) {
+            if (nodo.isLeaf()) {
+                textos.put(nodo, nodo.value);
+            } else {
+                String left = nodo.getLeftChild() != null ? textos.get(nodo.getLeftChild()) : "null";
+                String right = nodo.getRightChild() != null ? textos.get(nodo.getRightChild()) : "null";
+                textos.put(nodo, nodo.value + " (" + left + ", " + right + ")");
             }
-            return root + " (" + left + ", " + right + ")";
         }
+        return textos.get(this);
     }
 
     /**
@@ -215,35 +233,65 @@ public class BinaryTree  implements Serializable {
      * @see java.lang.Object#hashCode()
      */
     public int hashCode() {
-        int result = value.hashCode();
-        if (leftChild != null) {
-            result += 3 * leftChild.hashCode();
+        // Calcular el hash de cada nodo despues del de sus hijos
+        IdentityHashMap<BinaryTree, Integer> hashes = new IdentityHashMap<BinaryTree, Integer>();
+        for (BinaryTree nodo: postOrder()) {
+            int result = nodo.value.hashCode();
+            if (nodo.leftChild != null) {
+                result += 3 * hashes.get(nodo.leftChild);
+            }
+            if (nodo.rightChild != null) {
+                result += 7 * hashes.get(nodo.rightChild);
+            }
+            hashes.put(nodo, result);
         }
-        if (rightChild != null) {
-            result += 7 * leftChild.hashCode();
+        return hashes.get(this);
+    }
+
+    /**
+     * Recorre el arbol en postorden (hijo izquierdo, hijo derecho, raiz) con una pila explicita, sin recursion
+     * @return nodos en postorden
+     */
+    public ArrayList<BinaryTree> postOrder() {
+        ArrayList<BinaryTree> resultado = new ArrayList<BinaryTree>();
+        ArrayList<BinaryTree> pila = new ArrayList<BinaryTree>();
+        pila.add(this);
+        while (!pila.isEmpty()) {
+            BinaryTree nodo = pila.remove(pila.size() - 1);
+            resultado.add(nodo);
+            if (nodo.leftChild != null) pila.add(nodo.leftChild);
+            if (nodo.rightChild != null) pila.add(nodo.rightChild);
         }
-        return result;
+        Collections.reverse(resultado);
+        return resultado;
     }
 
     /**
      * Prints the binary tree rooted at this GeneradorLexers.BinaryTree node.
      */
     public void print() {
-        print(this, 0);
-    }
-
-    private void print(BinaryTree root, int indent) {
-        for (int i = 0; i < indent; i++) {
-            System.out.print("   ");
-        }
-        if (root == null) {
-            System.out.println("null");
-            return;
+        // Pila de nodos con su sangria; el hijo derecho se apila primero para imprimir antes el izquierdo
+        ArrayList<BinaryTree> pila = new ArrayList<BinaryTree>();
+        ArrayList<Integer> sangrias = new ArrayList<Integer>();
+        pila.add(this);
+        sangrias.add(0);
+        while (!pila.isEmpty()) {
+            BinaryTree root = pila.remove(pila.size() - 1);
+            int indent = sangrias.remove(sangrias.size() - 1);
+            for (int i = 0; i < indent; i++) {
+                System.out.print("   ");
+            }
+            if (root == null) {
+                System.out.println("null");
+                continue;
+            }
+            System.out.println(root.value);
+            if (root.isLeaf()) continue;
+            pila.add(root.rightChild);
+            sangrias.add(indent + 1);
+            pila.add(root.leftChild);
+            sangrias.add(indent + 1);
         }
-        System.out.println(root.value);
-        if (root.isLeaf()) return;
-        print(root.leftChild, indent + 1);
-        print(root.rightChild, indent + 1);
     }
 
     public int getPosition() {
@@ -254,32 +302,40 @@ public class BinaryTree  implements Serializable {
         this.position = position;
     }
 
-    public HashSet<Integer> getFirstPos() {
+    public int getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(int symbol) {
+        this.symbol = symbol;
+    }
+
+    public BitSet getFirstPos() {
         return firstPos;
     }
 
-    public void setFirstPos(HashSet<Integer> firstPos) {
-        this.firstPos.addAll(firstPos);
+    public void setFirstPos(BitSet firstPos) {
+        this.firstPos.or(firstPos);
     }
 
-    public HashSet<Integer> getFollowPos() {
+    public BitSet getFollowPos() {
         return followPos;
     }
 
-    public void setFollowPos(HashSet<Integer> followPos) {
-        this.followPos.addAll(followPos);
+    public void setFollowPos(BitSet followPos) {
+        this.followPos.or(followPos);
     }
 
-    public void addToFollowPos(Integer position){
-        this.followPos.add(position);
+    public void addToFollowPos(int position){
+        this.followPos.set(position);
     }
 
-    public HashSet<Integer> getLastPos() {
+    public BitSet getLastPos() {
         return lastPos;
     }
 
-    public void setLastPos(HashSet<Integer> lastPos) {
-        this.lastPos.addAll(lastPos);
+    public void setLastPos(BitSet lastPos) {
+        this.lastPos.or(lastPos);
     }
 
     public boolean isNullable() {
@@ -0,0 +1,151 @@
+package GeneradorLexers;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * La presente clase tiene como objetivo dividir el alfabeto de un automata en "atomos": conjuntos de caracteres
+ * disjuntos tales que cada simbolo del alfabeto es la union de algunos atomos. Dos caracteres del mismo atomo son
+ * indistinguibles para el automata, por lo que la construccion de subconjuntos solo necesita un movimiento por atomo y
+ * la simulacion clasifica cada caracter leido en su atomo.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class CharClassifier {
+    /**
+     * Atributos
+     */
+    private static final int LATIN = 256;  // Caracteres clasificados con tabla directa
+    private static final int[] NINGUNO = new int[0];
+
+    private final int[] segmentStart;  // Inicio de cada segmento elemental, ordenados
+    private final int[] segmentAtom;  // Atomo de cada segmento o -1 si ningun simbolo lo contiene
+    private final int[] latinAtom;  // Caracter < LATIN -> atomo o -1
+    private final int[] atomSymbol;  // Simbolo (SymbolTable) del conjunto de cada atomo
+    private final int[][] atomMembers;  // Simbolos del alfabeto que contienen a cada atomo
+
+    /**
+     * Constructor. Los simbolos del alfabeto sin conjunto de caracteres (epsilon) se ignoran.
+     * @param alphabet simbolos del automata
+     */
+    public CharClassifier(BitSet alphabet) {
+        // Bordes de todos los intervalos de todos los simbolos
+        int[] bordes = new int[16];
+        int numBordes = 0;
+        for (int s = alphabet.nextSetBit(0); s >= 0; s = alphabet.nextSetBit(s + 1)) {
+            CharSet conjunto = SymbolTable.charSet(s);
+            if (conjunto == null) continue;
+            for (int r = 0; r < conjunto.getNumRanges(); r++) {
+                if (numBordes + 2 > bordes.length) bordes = Arrays.copyOf(bordes, bordes.length * 2);
+                bordes[numBordes++] = conjunto.getRangeStart(r);
+                bordes[numBordes++] = conjunto.getRangeEnd(r) + 1;
+            }
+        }
+        Arrays.sort(bordes, 0, numBordes);
+        int unicos = 0;
+        for (int i = 0; i < numBordes; i++) {
+            if (unicos == 0 || bordes[unicos - 1] != bordes[i]) bordes[unicos++] = bordes[i];
+        }
+        segmentStart = Arrays.copyOf(bordes, unicos);
+
+        // Firma de cada segmento: los simbolos que lo contienen
+        int numSegmentos = Math.max(unicos - 1, 0);
+        BitSet[] firmas = new BitSet[numSegmentos];
+        for (int i = 0; i < numSegmentos; i++) firmas[i] = new BitSet();
+        for (int s = alphabet.nextSetBit(0); s >= 0; s = alphabet.nextSetBit(s + 1)) {
+            CharSet conjunto = SymbolTable.charSet(s);
+            if (conjunto == null) continue;
+            for (int r = 0; r < conjunto.getNumRanges(); r++) {
+                int desde = Arrays.binarySearch(segmentStart, conjunto.getRangeStart(r));
+                int hasta = Arrays.binarySearch(segmentStart, conjunto.getRangeEnd(r) + 1);
+                for (int i = desde; i < hasta; i++) firmas[i].set(s);
+            }
+        }
+
+        // Los segmentos con la misma firma forman un atomo
+        HashMap<BitSet, Integer> atomos = new HashMap<BitSet, Integer>();
+        segmentAtom = new int[unicos];
+        Arrays.fill(segmentAtom, -1);
+        int[] pares = new int[2 * numSegmentos];
+        int[] numPares = new int[numSegmentos];
+        int[][] paresPorAtomo = new int[numSegmentos][];
+        BitSet[] firmaPorAtomo = new BitSet[numSegmentos];
+        for (int i = 0; i < numSegmentos; i++) {
+            if (firmas[i].isEmpty()) continue;
+            Integer atomo = atomos.get(firmas[i]);
+            if (atomo == null) {
+                atomo = atomos.size();
+                atomos.put(firmas[i], atomo);
+                paresPorAtomo[atomo] = new int[4];
+                firmaPorAtomo[atomo] = firmas[i];
+            }
+            segmentAtom[i] = atomo;
+            int[] lista = paresPorAtomo[atomo];
+            if (numPares[atomo] + 2 > lista.length) lista = paresPorAtomo[atomo] = Arrays.copyOf(lista, lista.length * 2);
+            lista[numPares[atomo]++] = segmentStart[i];
+            lista[numPares[atomo]++] = segmentStart[i + 1] - 1;
+        }
+
+        int numAtomos = atomos.size();
+        atomSymbol = new int[numAtomos];
+        atomMembers = new int[numAtomos][];
+        for (int a = 0; a < numAtomos; a++) {
+            atomSymbol[a] = SymbolTable.intern(CharSet.fromPairs(paresPorAtomo[a], numPares[a]));
+            atomMembers[a] = firmaPorAtomo[a].stream().toArray();
+        }
+
+        // Tabla directa para los caracteres mas comunes
+        latinAtom = new int[LATIN];
+        for (int c = 0; c < LATIN; c++) latinAtom[c] = search(c);
+    }
+
+    private int search(int c) {
+        int i = Arrays.binarySearch(segmentStart, c);
+        if (i < 0) i = -i - 2;  // Segmento que contiene a c
+        if (i < 0 || i >= segmentStart.length - 1) return -1;
+        return segmentAtom[i];
+    }
+
+    /**
+     * Clasifica un caracter en su atomo
+     * @param c caracter leido
+     * @return indice del atomo o -1 si ningun simbolo del alfabeto contiene al caracter
+     */
+    public int classify(char c) {
+        return c < LATIN ? latinAtom[c] : search(c);
+    }
+
+    /**
+     * Devuelve los simbolos del alfabeto que contienen a un caracter
+     * @param c caracter leido
+     * @return simbolos del alfabeto, vacio si ninguno. No debe modificarse.
+     */
+    public int[] symbolsFor(char c) {
+        int atomo = classify(c);
+        return atomo < 0 ? NINGUNO : atomMembers[atomo];
+    }
+
+    public int getNumAtoms() {
+        return atomSymbol.length;
+    }
+
+    /**
+     * Simbolo del conjunto de caracteres de un atomo, con el que se etiquetan las transiciones de un DFA
+     * @param atom indice del atomo
+     * @return simbolo de SymbolTable
+     */
+    public int getAtomSymbol(int atom) {
+        return atomSymbol[atom];
+    }
+
+    /**
+     * Simbolos del alfabeto que contienen a un atomo
+     * @param atom indice del atomo
+     * @return simbolos ordenados. No debe modificarse.
+     */
+    public int[] getMembers(int atom) {
+        return atomMembers[atom];
+    }
+}
@@ -0,0 +1,244 @@
+package GeneradorLexers;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * La presente clase tiene como objetivo representar un conjunto de caracteres como intervalos [inicio, fin] ordenados,
+ * disjuntos y no adyacentes. Una transicion con un conjunto de caracteres reemplaza a una alternacion a|b|c|... de
+ * transiciones de un solo caracter. Los objetos son inmutables.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class CharSet implements Serializable {
+    /**
+     * Atributos
+     */
+    private final int[] bounds;  // Pares (inicio, fin) inclusivos
+    private final int hash;
+
+    private CharSet(int[] bounds) {
+        this.bounds = bounds;
+        this.hash = Arrays.hashCode(bounds);
+    }
+
+    /**
+     * Crea un conjunto de un solo caracter
+     * @param c caracter
+     * @return conjunto {c}
+     */
+    public static CharSet of(char c) {
+        return new CharSet(new int[]{c, c});
+    }
+
+    /**
+     * Crea un conjunto con un rango de caracteres
+     * @param from primer caracter (inclusivo)
+     * @param to ultimo caracter (inclusivo)
+     * @return conjunto [from, to]
+     */
+    public static CharSet range(char from, char to) {
+        if (from > to) throw new IllegalArgumentException("Rango invalido: " + from + ".." + to);
+        return new CharSet(new int[]{from, to});
+    }
+
+    /**
+     * Crea un conjunto a partir de pares (inicio, fin) en cualquier orden, uniendo los que se traslapan
+     * @param pares pares inclusivos, su longitud debe ser par
+     * @param length cantidad de enteros validos en pares
+     * @return conjunto normalizado
+     */
+    static CharSet fromPairs(int[] pares, int length) {
+        int n = length / 2;
+        long[] ordenados = new long[n];
+        for (int i = 0; i < n; i++) {
+            ordenados[i] = ((long) pares[2 * i] << 32) | pares[2 * i + 1];
+        }
+        Arrays.sort(ordenados);
+
+        int[] resultado = new int[length];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int inicio = (int) (ordenados[i] >>> 32), fin = (int) ordenados[i];
+            if (k > 0 && inicio <= resultado[k - 1] + 1) {
+                resultado[k - 1] = Math.max(resultado[k - 1], fin);
+            } else {
+                resultado[k++] = inicio;
+                resultado[k++] = fin;
+            }
+        }
+        return new CharSet(Arrays.copyOf(resultado, k));
+    }
+
+    /**
+     * Union de dos conjuntos
+     * @param other otro conjunto
+     * @return conjunto con los caracteres de ambos
+     */
+    public CharSet union(CharSet other) {
+        int[] pares = Arrays.copyOf(bounds, bounds.length + other.bounds.length);
+        System.arraycopy(other.bounds, 0, pares, bounds.length, other.bounds.length);
+        return fromPairs(pares, pares.length);
+    }
+
+    /**
+     * Complemento del conjunto sobre todos los caracteres (0 a 0xFFFF), para las clases negadas [^...]
+     * @return conjunto con los caracteres que no pertenecen a este
+     */
+    public CharSet complement() {
+        int[] resultado = new int[bounds.length + 2];
+        int k = 0;
+        int siguiente = Character.MIN_VALUE;  // Primer caracter que todavia no se ha cubierto
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > siguiente) {
+                resultado[k++] = siguiente;
+                resultado[k++] = bounds[i] - 1;
+            }
+            siguiente = bounds[i + 1] + 1;
+        }
+        if (siguiente <= Character.MAX_VALUE) {
+            resultado[k++] = siguiente;
+            resultado[k++] = Character.MAX_VALUE;
+        }
+        return new CharSet(Arrays.copyOf(resultado, k));
+    }
+
+    /**
+     * Diferencia de dos conjuntos
+     * @param other conjunto con los caracteres a quitar
+     * @return conjunto con los caracteres de este que no estan en other
+     */
+    public CharSet minus(CharSet other) {
+        CharSet complemento = other.complement();
+        int[] resultado = new int[bounds.length + complemento.bounds.length];
+        int k = 0, i = 0, j = 0;
+        // Interseccion de intervalos ordenados con el complemento de other
+        while (i < bounds.length && j < complemento.bounds.length) {
+            int inicio = Math.max(bounds[i], complemento.bounds[j]);
+            int fin = Math.min(bounds[i + 1], complemento.bounds[j + 1]);
+            if (inicio <= fin) {
+                resultado[k++] = inicio;
+                resultado[k++] = fin;
+            }
+            if (bounds[i + 1] < complemento.bounds[j + 1]) i += 2;
+            else j += 2;
+        }
+        return new CharSet(Arrays.copyOf(resultado, k));
+    }
+
+    /**
+     * Indica si el conjunto contiene un caracter, por busqueda binaria sobre los intervalos
+     * @param c caracter a buscar
+     * @return verdadero si pertenece al conjunto
+     */
+    public boolean contains(int c) {
+        int lo = 0, hi = bounds.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bounds[2 * mid + 1] < c) lo = mid + 1;
+            else if (bounds[2 * mid] > c) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cantidad de intervalos
+     */
+    public int getNumRanges() {
+        return bounds.length / 2;
+    }
+
+    public int getRangeStart(int i) {
+        return bounds[2 * i];
+    }
+
+    public int getRangeEnd(int i) {
+        return bounds[2 * i + 1];
+    }
+
+    /**
+     * Indica si el conjunto tiene un solo caracter
+     */
+    public boolean isSingleChar() {
+        return bounds.length == 2 && bounds[0] == bounds[1];
+    }
+
+    /**
+     * Indica si el conjunto no tiene caracteres
+     */
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    /**
+     * Cantidad de caracteres del conjunto
+     */
+    public int size() {
+        int total = 0;
+        for (int i = 0; i < bounds.length; i += 2) total += bounds[i + 1] - bounds[i] + 1;
+        return total;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CharSet && hash == ((CharSet) o).hash && Arrays.equals(bounds, ((CharSet) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Representacion del conjunto, por ejemplo [0-9A-Z_a-z]. Los caracteres no imprimibles se escriben como \\uXXXX.
+     */
+    @Override
+    public String toString() {
+        StringBuilder resultado = new StringBuilder("[");
+        for (int i = 0; i < bounds.length; i += 2) {
+            appendChar(resultado, bounds[i]);
+            if (bounds[i + 1] > bounds[i]) {
+                if (bounds[i + 1] > bounds[i] + 1) resultado.append('-');
+                appendChar(resultado, bounds[i + 1]);
+            }
+        }
+        return resultado.append(']').toString();
+    }
+
+    /**
+     * Escribe el conjunto como expresion regular que RegExParser lee como una sola hoja: el caracter escapado si es
+     * uno solo y una clase [...] si son varios.
+     * @return expresion regular del conjunto
+     */
+    public String toRegex() {
+        StringBuilder resultado = new StringBuilder();
+        if (isSingleChar()) {
+            if ("|*+?!\\()[]{}^.#".indexOf(bounds[0]) >= 0) resultado.append('\\');
+            return resultado.append((char) bounds[0]).toString();
+        }
+        resultado.append('[');
+        for (int i = 0; i < bounds.length; i += 2) {
+            appendClassChar(resultado, bounds[i]);
+            if (bounds[i + 1] > bounds[i]) {
+                if (bounds[i + 1] > bounds[i] + 1) resultado.append('-');
+                appendClassChar(resultado, bounds[i + 1]);
+            }
+        }
+        return resultado.append(']').toString();
+    }
+
+    private static void appendClassChar(StringBuilder sb, int c) {
+        if (c == '\\' || c == ']' || c == '[' || c == '-' || c == '^') sb.append('\\');
+        sb.append((char) c);
+    }
+
+    private static void appendChar(StringBuilder sb, int c) {
+        if (c < 0x20 || (c >= 0x7F && c < 0xA0) || c == '-' || c == '[' || c == ']' || c == '\\') {
+            sb.append(String.format("\\u%04X", c));
+        } else {
+            sb.append((char) c);
+        }
+    }
+}
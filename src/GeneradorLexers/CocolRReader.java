@@ -27,9 +27,9 @@ public class CocolRReader implements Serializable{
     /**
      * Algunos regex importantes
      */
-    private String letterRegex = "a|b|c|d|e|f|g|h|i|j|k|l|m|n|o|p|q|r|s|t|u|v|w|x|y|z|A|B|C|D|E|F|G|H|I|J|K|L|M|N|O|P|Q|R|S|T|U|V|W|X|Y|Z|_";
-    private String digitRegex = "0|1|2|3|4|5|6|7|8|9";
-    private String identRegex = "(" + letterRegex + ")((" + letterRegex + ")|(" + digitRegex + "))*";
+    private String letterRegex = "[a-zA-Z_]";
+    private String digitRegex = "[0-9]";
+    private String identRegex = letterRegex + "(" + letterRegex + "|" + digitRegex + ")*";
     private DirectedGraph identAutomata = createAutomaton(identRegex);
     private NFAToDFA idenNFAToDFA = new NFAToDFA();
     private String lexerJavaFileName;
@@ -70,17 +70,15 @@ public class CocolRReader implements Serializable{
      */
     public boolean analizeCocolRSyntax(String filename){
         // Operadores
-        String[] op = {"+", "|", "*", "?"};
+        String[] op = {"+", "|", "*", "?", "!", "(", ")", "[", "]", "{", "}", "^"};
         operadoresNFA.addAll(Arrays.asList(op));
 
         // Regex mas basicos
-        String ANY = "(\u0001)|(\u0002)|(\u0003)|(\u0004)|(\u0005)|(\u0006)|(\u0007)" +
-                "|\u000E|\u000F|\u0010|\u0011|\u0012|\u0013|\u0014|\u0015|\u0016|\u0017|\u0018|\u0019|\u001A|\u001B|\u001C|\u001D|\u001E|\u001F|( )|(\\!)|\"|#|$|%|&|'|(\\()|(\\))|(\\*)|(\\+)|,|-|(\\.)|/|0|1|2|3|4|5|6|7|8|9|:|;|<|=|>|(\\?)|@|A|B|C|D|E|F|G|H|I|J|K|L|M|N|O|P|Q|R|S|T|U|V|W|X|Y|Z|[|(\\\\)|]|^|_|`|a|b|c|d|e|f|g|h|i|j|k|l|m|n|o|p|q|r|s|t|u|v|w|x|y|z|{|(\\|)|}|~" +
-                "|\u007F|\u0080|\u0081|\u0082|\u0083|\u0084|\u0085|\u0086|\u0087|\u0088|\u0089|\u008A|\u008B|\u008C|\u008D|\u008E|\u008F|\u0090|\u0091|\u0092|\u0093|\u0094|\u0095|\u0096|\u0097|\u0098|\u0099|\u009A|\u009B" +
-                "|\u009C|\u009D|\u009E|\u009F|( )|¡|¢|£|¤|¥|¦|§|¨|©|ª|«|¬|\u00AD|®|¯|°|±|²|³|´|µ|¶|·|¸|¹|º|»|¼|½|¾|¿|À|Á|Â|Ã|Ä|Å|Æ|Ç|È|É|Ê|Ë|Ì|Í|Î|Ï|Ð|Ñ|Ò|Ó|Ô|Õ|Ö|×|Ø|Ù|Ú|Û|Ü|Ý|Þ|ß|à|á|â|ã|ä|å|æ|ç|è|é|ê|ë|ì|í|î|ï|ð|ñ|ò|ó|ô|õ|ö|÷|ø|ù|ú|û|ü|ý|þ";
+        // ANY son los caracteres 1 a 7 y 14 a 254 (sin los caracteres de control 8 a 13)
+        String ANY = "[\u0001-\u0007\u000E-\u00FE]";
         caracteresRegex.put("ANY", ANY);
 
-        String anyButQuoteRegex = digitRegex + "|(\\.)|#|$|%|&|/|(\\\")|=|¡|\'|¿|´|¨|~|{|[|^|}|]|`|-|_|:|,|;|<|>|°|¬|(\\+)|(\\?)|(\\!)|(\\|)| |(\\\\)|" + letterRegex;   // El esparcio podria fallar
+        String anyButQuoteRegex = "[ -'+-?A-~¡¨¬°´¿]";
 
         /*
          Crear variables para la creacion de automatas de verificacion de sintax
@@ -833,7 +831,8 @@ public class CocolRReader implements Serializable{
                     // Obtener el contenido
                     newSubChar += String.valueOf(newChar);
 
-                    newRegex += getChar(newSubChar);
+                    String caracter = getChar(newSubChar);
+                    newRegex += CharSet.of(caracter.charAt(caracter.length() - 1)).toRegex();
 
                     // Avanzar uno más para consumir la segunda comilla
                     i--;
@@ -845,7 +844,15 @@ public class CocolRReader implements Serializable{
 
                     // Buscar que es lo que se va a sumar y lo agrega
                     result = identifyCharacterRegex(futureRegex, i);
-                    newRegex += "|" + result.getValue();
+                    if (result == null){
+                        return null;
+                    }
+                    CharSet suma = conjuntoDeRegex(result.getValue() + "|" + newRegex);
+                    if (suma == null){
+                        System.err.println("Error: No se declaro correctamente una suma de characters.");
+                        return null;
+                    }
+                    newRegex = suma.toRegex();
                     i = result.getKey();
                     break;
 
@@ -865,7 +872,10 @@ public class CocolRReader implements Serializable{
                     i = result.getKey();
 
                     // Restar ambos conjuntos
-                    newRegex = eliminarStringRegex(notDesiredSet.toCharArray(), newRegex);
+                    newRegex = eliminarStringRegex(notDesiredSet, newRegex);
+                    if (newRegex == null){
+                        return null;
+                    }
                     break;
 
                 // Siempre que viene a un punto es por declaracion de un conjunto de chars
@@ -920,8 +930,7 @@ public class CocolRReader implements Serializable{
                             if (futureRegex[i] == 'C'){
                                 int foundCharValue = Integer.valueOf(charFinal);
                                 char foundChar = (char)foundCharValue;
-                                charFinal = String.valueOf(foundChar);
-                                newRegex = charFinal;
+                                newRegex = CharSet.of(foundChar).toRegex();
                                 break;
                             } else {
                                 System.err.println("Error: Para al reconocer un CHR.");
@@ -1011,7 +1020,8 @@ public class CocolRReader implements Serializable{
                             newRegex += chr;
                             i++;
                         } else {
-                            // Agregar cada letra a nuevo regex
+                            // Agregar cada letra a nuevo regex, escapando los operadores
+                            if (operadoresNFA.contains(String.valueOf(chr))) newRegex += '\\';
                             newRegex += chr;
                             i++;
                         }
@@ -1506,16 +1516,17 @@ public class CocolRReader implements Serializable{
         }
 
         // Obtener todos los characters entre ambos characters
-        int charEnd = newRegex.charAt(0);
-        int charInicio = charFinal.charAt(0);
+        CharSet conjuntoFinal = conjuntoDeRegex(newRegex);
+        if (conjuntoFinal == null || !conjuntoFinal.isSingleChar() || charFinal.isEmpty()){
+            System.err.println("Error: El rango de chars que se desea crear es invalido.");
+            return null;
+        }
+        char charEnd = (char) conjuntoFinal.getRangeStart(0);
+        char charInicio = charFinal.charAt(0);
 
         if (charInicio < charEnd){
-            // Reiniciar newRegex
-            newRegex = "" + (char)charInicio;
-            // Agregar cada caracter a nuevo regex
-            for (int k = charInicio + 1; k <= charEnd; k++){
-                newRegex += "|" + (char)k;
-            }
+            // El rango es una sola clase [inicio-fin]
+            newRegex = CharSet.range(charInicio, charEnd).toRegex();
         } else {
             System.err.println("Error: El rango de chars que se desea crear es invalido.");
             return null;
@@ -1526,34 +1537,38 @@ public class CocolRReader implements Serializable{
 
     /**
      * Metodo que sirve para eliminar un conjunto de caracteres de un conjunto de regex nuevo
-     * @param toEliminate es el arreglo de chars en el que se encuentra el conjunto a eliminar
+     * @param toEliminate es el regex del conjunto a eliminar
      * @param newRegex es el regex del que se eliminaran los caracteres
-     * @return devuelve el nuevo indice para el for y el nuevo regex
+     * @return devuelve la clase con la diferencia de ambos conjuntos, o null si no son conjuntos o queda vacia
      */
-    private String eliminarStringRegex(char[] toEliminate, String newRegex) {
-        String result = "";
-        HashSet<Character> conjuntoAEliminar = new HashSet<Character>();
-
-        // Agregar a conjunto de palabras a eliminar
-        for (char aToEliminate : toEliminate) {
-            conjuntoAEliminar.add(aToEliminate);
+    private String eliminarStringRegex(String toEliminate, String newRegex) {
+        CharSet conjuntoAEliminar = conjuntoDeRegex(toEliminate);
+        CharSet conjunto = conjuntoDeRegex(newRegex);
+        if (conjuntoAEliminar == null || conjunto == null){
+            System.err.println("Error: Solo se pueden restar conjuntos de characters.");
+            return null;
         }
 
-        char[] newRegexChar = newRegex.toCharArray();  // Convertir el nuevo regexanterior a arreglo
-        // Copiar cada letra de newRegex, menos las que se desean eliminar
-        for (int j = 0; j < newRegex.length(); j++) {
-            char letraActual = newRegexChar[j];  // Obtener letra
-            boolean seDebeIgnorar = conjuntoAEliminar.contains(letraActual);  // Ver si se debe ignorar
-            if (!seDebeIgnorar){
-                if (letraActual != '|'){
-                    result += letraActual + "|";  // Copiar a nuevo resultado
-                }
-            }
+        CharSet resultado = conjunto.minus(conjuntoAEliminar);
+        if (resultado.isEmpty()){
+            System.err.println("Error: La resta de characters deja un conjunto vacio.");
+            return null;
         }
+        return resultado.toRegex();
+    }
 
-        result = result.substring(0, result.length() - 1);  // eliminar el ultimo OR que se coloco
-
-        return result;
+    /**
+     * Metodo que sirve para obtener el conjunto de caracteres de un regex de CHARACTERS (una clase, un caracter o una
+     * alternacion de ellos)
+     * @param regex es el regex del conjunto
+     * @return devuelve el conjunto, o null si el regex no es un conjunto de caracteres
+     */
+    private CharSet conjuntoDeRegex(String regex) {
+        try {
+            return RegExParser.parse(regex).getCharSet();
+        } catch (IllegalArgumentException e){
+            return null;
+        }
     }
 
 
@@ -1639,7 +1654,7 @@ public class CocolRReader implements Serializable{
     }
 
     /**
-     * Metodo que sirve para agregar un conjunto de caracteres a un nuevo regex con ORs
+     * Metodo que sirve para agregar un conjunto de caracteres a un nuevo regex como una clase [...]
      * @param i es el index del for prinipal, donde termina el string en el arreglo, debe devolver donde inicia
      * @param futureRegex es el arreglo de chars en el que se encuentra el conjunto en bruto
      * @return devuelve el nuevo indice para el for y el nuevo regex
@@ -1648,60 +1663,36 @@ public class CocolRReader implements Serializable{
         // Avanzar en el retroceso de la declaracion del conjunto
         i--;
 
-        // Variable de resultado
-        String newRegex = "";
+        // Pares (inicio, fin) de cada caracter del conjunto
+        int[] pares = new int[2 * futureRegex.length];
+        int numPares = 0;
 
         // Obtener anterior letra
         char letter = futureRegex[i];
 
-        // Buscar las siguientes comillas e ir creando regex
+        // Buscar las siguientes comillas e ir agregando caracteres
         while (true){
             // Verificar si hay caracter de escape
-            if (letter != '"'){
-                newRegex += letter;  // Agregar el primer caracter
-
-                // Verificar que no es el ultimo caracter
-                char nextLetter = futureRegex[i - 1];
-                if(nextLetter != '"'){
-                    // Agregar OR entre cada letra
-                    newRegex += "|";
-                }
-
-                // Avanzar el retroceso de la declaracion del conjunto
-                i--;
-
-                // Obtener siguiente letra
-                letter = nextLetter;
-            } else {
-                char siguiente;
-                try {
-                    siguiente = futureRegex[i - 1];
-                } catch (IndexOutOfBoundsException e){
-                    siguiente = ' ';
-                }
+            if (letter == '"'){
+                char siguiente = i > 0 ? futureRegex[i - 1] : ' ';
                 if (siguiente != '\\'){
                     break;
-                } else {
-                    // Agregar a regex
-                    newRegex += letter;
-
-                    // Verificar que no es el ultimo caracter
-                    char nextLetter = futureRegex[i - 1];
-                    if(nextLetter != '"'){
-                        // Agregar OR entre cada letra
-                        newRegex += "|";
-                    }
-
-                    // Avanzar el retroceso de la declaracion del conjunto
-                    i--;
-
-                    // Obtener siguiente letra
-                    letter = nextLetter;
                 }
             }
+
+            // Agregar a conjunto
+            pares[numPares++] = letter;
+            pares[numPares++] = letter;
+
+            // Avanzar el retroceso de la declaracion del conjunto y obtener siguiente letra
+            i--;
+            letter = futureRegex[i];
         }
 
-        return new Pair<Integer, String>(i, newRegex);
+        if (numPares == 0){
+            return new Pair<Integer, String>(i, "");
+        }
+        return new Pair<Integer, String>(i, CharSet.fromPairs(pares, numPares).toRegex());
     }
 
 
@@ -1709,10 +1700,8 @@ public class CocolRReader implements Serializable{
         /**
          * Construccion directa de DFA
          */
-        // Procesar regex
-        RegExToNFA regExToNFA = new RegExToNFA();
-        regex = RegExConverter.infixToPostfix(regex);  // Convertir a postfix
-        return regExToNFA.evaluate(regex);
+        // Procesar regex, el NFA se reutiliza si otro lector ya construyo el mismo regex
+        return RegExCache.getShared().nfa(regex);
 
     }
 
@@ -1840,8 +1829,7 @@ public class CocolRReader implements Serializable{
                 "    // Variables\n" +
                 "    private ArrayList<Pair<String, String>> tokensTypesAndRegexs;  // <Type, Regex>\n" +
                 "    private Simulator simulador;\n" +
-                "    private NFAToDFA funciones;\n" +
-                "    private DirectedGraph tokenAutomata;\n" +
+                "    private final LazyDFA tokenAutomata;  // DFA construido bajo demanda, se puede compartir entre hilos\n" +
                 "    private HashMap<String, Integer> tokenPrecedence;\n\n";
 
         // Constructor
@@ -1942,11 +1930,7 @@ public class CocolRReader implements Serializable{
 
         // Fin de constructor
         programa += "        // Crear automata reconocedor de tokens TokenAutomata\n" +
-                "        generateTokenIdentificatorAutomata();\n" +
-                "\n" +
-                "        // Crear las funciones para el automata creado\n" +
-                "        funciones = new NFAToDFA();\n" +
-                "        funciones.generateSimpleEClosure(tokenAutomata);\n}";
+                "        tokenAutomata = new LazyDFA(generateTokenIdentificatorAutomata());\n}";
 
 
         // Metodos
@@ -1963,19 +1947,16 @@ public class CocolRReader implements Serializable{
                         "    public Pair<Boolean, Integer> nextToken(ArrayList<Pair<String, String>> tokens, String programa, Integer inicioLexema) {\n" +
                         "        if (!(inicioLexema >= programa.length())){\n" +
                         "            // Analizar programa\n" +
-                        "            Pair<Integer, DirectedGraph.NodeClass> tokenInfo = simulador.simulateNFARecognizor(tokenAutomata, programa, funciones, inicioLexema);\n" +
+                        "            Pair<Integer, String> tokenInfo = simulador.recognizeToken(tokenAutomata, programa, inicioLexema);\n" +
                         "\n" +
                         "            // Obtener fin de nuevo token\n" +
                         "            int finLexema = tokenInfo.getKey();\n" +
                         "\n" +
                         "            // Obtener el tipo de token encontrado por medio de los estados finales alcanzados\n" +
-                        "            DirectedGraph.NodeClass estadoFinal = tokenInfo.getValue();\n" +
+                        "            String tokenType = tokenInfo.getValue();\n" +
                         "\n" +
                         "            // Si sí se encontro una coincidencia\n" +
-                        "            if (estadoFinal != null){\n" +
-                        "                // Obtener el tipo de token\n" +
-                        "                String tokenType = estadoFinal.getTokenType();\n" +
-                        "\n" +
+                        "            if (tokenType != null){\n" +
                         "                if (!tokenType.equals(\"whitespace\")){\n" +
                         "                    // Si es un token importante, se obtiene el lexema del programa\n" +
                         "                    String lexema = programa.substring(inicioLexema, finLexema + 1);\n" +
@@ -2018,81 +1999,13 @@ public class CocolRReader implements Serializable{
                 "    }\n" +
                 "\n" +
                 "\n" +
-                "    private void generateTokenIdentificatorAutomata(){\n" +
-                "        // Funcion de crear automatas\n" +
-                "        RegExToNFA regExToNFA = new RegExToNFA();\n" +
-                "\n" +
-                "        // Stack de todos los automatas separados\n" +
-                "        Stack<DirectedGraph> automatasPerToken = new Stack<DirectedGraph>();\n" +
-                "\n" +
-                "        // Crear un automata por cada regex conocido\n" +
-                "        String newRegex, newTokenType;\n" +
-                "        for (Pair<String, String> tokenTypeRegex: tokensTypesAndRegexs){\n" +
-                "            // Obtener regex\n" +
-                "            newRegex = tokenTypeRegex.getValue();\n" +
-                "            newRegex = RegExConverter.infixToPostfix(newRegex);  // Pasar a postfix\n" +
-                "\n" +
-                "            // Obtener el tipo de token\n" +
-                "            newTokenType = tokenTypeRegex.getKey();\n" +
-                "\n" +
-                "            // Crear automata nuevo\n" +
-                "            DirectedGraph newAutomata = regExToNFA.evaluate(newRegex);\n" +
-                "\n" +
-                "            // Agregar información al nodo final de cada automata\n" +
-                "            DirectedGraph.NodeClass nodoFinal = newAutomata.getOneFinalNode();\n" +
-                "            nodoFinal.setPrecedence(tokenPrecedence.get(newTokenType));\n" +
-                "            nodoFinal.setTokenType(newTokenType);\n" +
-                "\n" +
-                "            automatasPerToken.push(newAutomata);\n" +
-                "        }\n" +
-                "\n" +
-                "        tokenAutomata = unifyAutomatas(automatasPerToken);\n" +
-                "    }\n" +
-                "\n" +
-                "    private DirectedGraph unifyAutomatas(Stack<DirectedGraph> automatasPerToken) {\n" +
-                "        // Obtener automata al que se le uniran el resto de automatas\n" +
-                "        DirectedGraph op1 = automatasPerToken.pop();\n" +
-                "        DirectedGraph.NodeClass nodoInicialAbsoluto = op1.getOneInicialNode();  // Obtener el unico nodo inicial\n" +
-                "\n" +
-                "        DirectedGraph op2;\n" +
-                "        DirectedGraph.NodeClass nodoInicialViejo;\n" +
-                "        while (!automatasPerToken.isEmpty()) {\n" +
-                "            // Obtener siguiente automata\n" +
-                "            op2 = automatasPerToken.pop();\n" +
-                "\n" +
-                "            // Obtener nodos de segundo automata\n" +
-                "            LinkedList<DirectedGraph.NodeClass> nodos2 = op2.getAllNodes();\n" +
-                "\n" +
-                "            // Obtener transiciones automata 2\n" +
-                "            LinkedList<DirectedGraph.edgeContents> edges2 = op2.getEdges();\n" +
-                "\n" +
-                "            // Copiar cada nodo a automata 1\n" +
-                "            for (DirectedGraph.NodeClass i : nodos2) {\n" +
-                "                op1.addNode(op1, i);\n" +
-                "\n" +
-                "                // Evita un bug\n" +
-                "                if (i.isFinal()){\n" +
-                "                    op1.getFinalNode().add(i);\n" +
-                "                }\n" +
-                "            }\n" +
-                "\n" +
-                "            // Copiar cada transicion a automata 1\n" +
-                "            for (DirectedGraph.edgeContents i : edges2) {\n" +
-                "                op1.addEdges(op1, i);\n" +
-                "            }\n" +
-                "\n" +
-                "            // Agregar una transicion epsilon entre nodo inicial de OP1 a OP2\n" +
-                "            nodoInicialViejo = op2.getOneInicialNode();  // Obtener nodo inicial de op2\n" +
-                "            op1.addEdges(op1, nodoInicialAbsoluto, nodoInicialViejo, \"!\");  // Agregar nueva transicion\n" +
-                "            nodoInicialViejo.setStart(false);  // Eliminar bandera de nodo inicial antiguo en op1\n" +
-                "\n" +
-                "            // Agregar alphabeto\n" +
-                "            HashSet<String> alfabetoNuevo = op1.getAlphabet();\n" +
-                "            alfabetoNuevo.addAll(op2.getAlphabet());\n" +
-                "            op1.setAlphabet(alfabetoNuevo);\n" +
-                "        }\n" +
+                "    private CompiledAutomaton generateTokenIdentificatorAutomata(){\n" +
+                "        // Ordenar los tokens de mayor a menor prioridad (menor precedencia primero)\n" +
+                "        ArrayList<Pair<String, String>> tokensOrdenados = new ArrayList<Pair<String, String>>(tokensTypesAndRegexs);\n" +
+                "        tokensOrdenados.sort(Comparator.comparing((Pair<String, String> token) -> tokenPrecedence.get(token.getKey())));\n" +
                 "\n" +
-                "        return op1;\n" +
+                "        // Construir un solo DFA para todos los tokens con followPos, sin NFA ni construccion por subconjuntos\n" +
+                "        return new RegExToDFA().createDFA(tokensOrdenados).compile();\n" +
                 "    }\n" +
                 "}\n";
 
@@ -0,0 +1,237 @@
+package GeneradorLexers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * La presente clase tiene como objetivo representar un automata compilado para reconocer tokens desde varios hilos.
+ * Es profundamente inmutable: todos sus atributos son finales y ningun arreglo se modifica despues del constructor,
+ * por lo que una instancia se puede compartir entre hilos sin sincronizacion.
+ * Las e-closures quedan precalculadas: la transicion de un estado con un atomo de caracteres lleva directamente a la
+ * union de las e-closures de los destinos, por lo que la simulacion no tiene transiciones epsilon. Las transiciones
+ * se indexan por atomo (ver {@link CharClassifier}), asi cada caracter se clasifica una sola vez por paso.
+ * El estado de cada simulacion (el conjunto de estados actual) vive en variables locales de quien simula.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class CompiledAutomaton {
+    /**
+     * Atributos
+     */
+    private final CharClassifier classifier;
+    private final int numStates;
+    private final int[] startStates;  // e-closure del estado inicial, ordenada
+    private final int[] rowStart;  // Inicio de las transiciones de cada estado, tiene n + 1 elementos
+    private final int[] edgeAtom;  // Atomo de cada transicion, ordenados dentro de cada fila
+    private final int[] targetStart;  // Inicio de los destinos de cada transicion, tiene m + 1 elementos
+    private final int[] targets;  // Destinos de las transiciones, ya cerrados por epsilon
+    private final boolean[] accept;  // Indica si cada estado es de aceptacion, aunque no tenga tipo de token
+    private final int[] precedence;  // Precedencia del token de cada estado o Integer.MAX_VALUE si no es de aceptacion
+    private final String[] tokenTypes;  // Tipo de token de cada estado (null si no es de aceptacion)
+
+    private CompiledAutomaton(CharClassifier classifier, int numStates, int[] startStates, int[] rowStart,
+                              int[] edgeAtom, int[] targetStart, int[] targets, boolean[] accept, int[] precedence,
+                              String[] tokenTypes) {
+        this.classifier = classifier;
+        this.numStates = numStates;
+        this.startStates = startStates;
+        this.rowStart = rowStart;
+        this.edgeAtom = edgeAtom;
+        this.targetStart = targetStart;
+        this.targets = targets;
+        this.accept = accept;
+        this.precedence = precedence;
+        this.tokenTypes = tokenTypes;
+    }
+
+    /**
+     * Compila un automata compacto, normalmente el NFA reconocedor de tokens
+     * @param nfa automata a compilar
+     * @return automata compilado
+     */
+    public static CompiledAutomaton compile(FrozenAutomaton nfa) {
+        int n = nfa.getNumStates();
+        CharClassifier atomos = new CharClassifier(nfa.getAlphabet());
+
+        // Atomos que componen a cada simbolo del alfabeto
+        HashMap<Integer, ArrayList<Integer>> atomosPorSimbolo = new HashMap<Integer, ArrayList<Integer>>();
+        for (int a = 0; a < atomos.getNumAtoms(); a++) {
+            for (int simbolo: atomos.getMembers(a)) {
+                ArrayList<Integer> lista = atomosPorSimbolo.get(simbolo);
+                if (lista == null) {
+                    lista = new ArrayList<Integer>();
+                    atomosPorSimbolo.put(simbolo, lista);
+                }
+                lista.add(a);
+            }
+        }
+
+        // e-closure de cada estado, calculada una sola vez
+        BitSet[] closures = new BitSet[n];
+        for (int s = 0; s < n; s++) {
+            BitSet conjunto = new BitSet(n);
+            conjunto.set(s);
+            closures[s] = nfa.eClosure(conjunto);
+        }
+
+        // Transiciones cerradas de cada estado por atomo
+        int[] rowStart = new int[n + 1];
+        int[] edgeAtom = new int[16];
+        int[] targetStart = new int[17];
+        int[] targets = new int[16];
+        int numEdges = 0, numTargets = 0;
+        for (int s = 0; s < n; s++) {
+            BitSet[] porAtomo = new BitSet[atomos.getNumAtoms()];
+            for (int e = nfa.getRowStart(s); e < nfa.getRowEnd(s); e++) {
+                ArrayList<Integer> lista = atomosPorSimbolo.get(nfa.getLabel(e));
+                if (lista == null) continue;
+                for (int a: lista) {
+                    if (porAtomo[a] == null) porAtomo[a] = new BitSet(n);
+                    porAtomo[a].or(closures[nfa.getTarget(e)]);
+                }
+            }
+
+            for (int a = 0; a < porAtomo.length; a++) {
+                if (porAtomo[a] == null) continue;
+                if (numEdges == edgeAtom.length) {
+                    edgeAtom = Arrays.copyOf(edgeAtom, numEdges * 2);
+                    targetStart = Arrays.copyOf(targetStart, numEdges * 2 + 1);
+                }
+                edgeAtom[numEdges] = a;
+                targetStart[numEdges] = numTargets;
+                for (int t = porAtomo[a].nextSetBit(0); t >= 0; t = porAtomo[a].nextSetBit(t + 1)) {
+                    if (numTargets == targets.length) targets = Arrays.copyOf(targets, numTargets * 2);
+                    targets[numTargets++] = t;
+                }
+                numEdges++;
+            }
+            rowStart[s + 1] = numEdges;
+        }
+        targetStart[numEdges] = numTargets;
+
+        // Aceptacion de cada estado
+        boolean[] accept = new boolean[n];
+        int[] precedence = new int[n];
+        String[] tokenTypes = new String[n];
+        for (int s = 0; s < n; s++) {
+            accept[s] = nfa.isAccept(s);
+            precedence[s] = nfa.isAccept(s) ? nfa.getPrecedence(s) : Integer.MAX_VALUE;
+            tokenTypes[s] = nfa.isAccept(s) ? nfa.getTokenType(s) : null;
+        }
+
+        int[] startStates = closures[nfa.getStartState()].stream().toArray();
+        return new CompiledAutomaton(atomos, n, startStates, rowStart, Arrays.copyOf(edgeAtom, numEdges),
+                Arrays.copyOf(targetStart, numEdges + 1), Arrays.copyOf(targets, numTargets), accept, precedence,
+                tokenTypes);
+    }
+
+    /**
+     * Crea un conjunto nuevo con la e-closure del estado inicial. Cada simulacion debe tener el suyo.
+     * @return conjunto de estados iniciales
+     */
+    public BitSet startSet() {
+        BitSet conjunto = new BitSet(numStates);
+        for (int s: startStates) conjunto.set(s);
+        return conjunto;
+    }
+
+    /**
+     * Calcula los estados alcanzados desde un conjunto con un caracter. No modifica el conjunto de entrada.
+     * @param set conjunto de estados actual
+     * @param c caracter leido
+     * @return conjunto nuevo de estados alcanzados (vacio si ninguno)
+     */
+    public BitSet step(BitSet set, char c) {
+        BitSet resultado = new BitSet(numStates);
+        int atomo = classifier.classify(c);
+        if (atomo < 0) return resultado;
+
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            addTargets(s, atomo, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula los estados alcanzados desde un conjunto con un atomo, usado por LazyDFA
+     * @param states estados actuales
+     * @param atom atomo leido (ver classify)
+     * @return conjunto nuevo de estados alcanzados (vacio si ninguno)
+     */
+    BitSet step(int[] states, int atom) {
+        BitSet resultado = new BitSet(numStates);
+        for (int s: states) addTargets(s, atom, resultado);
+        return resultado;
+    }
+
+    /**
+     * Agrega a un conjunto los destinos de un estado con un atomo
+     */
+    private void addTargets(int state, int atom, BitSet resultado) {
+        int e = findEdge(state, atom);
+        if (e < 0) return;
+        for (int t = targetStart[e]; t < targetStart[e + 1]; t++) {
+            resultado.set(targets[t]);
+        }
+    }
+
+    /**
+     * Busca (binariamente) la transicion de un estado con un atomo
+     * @return posicion de la transicion o -1 si no existe
+     */
+    private int findEdge(int state, int atom) {
+        int lo = rowStart[state], hi = rowStart[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (edgeAtom[mid] < atom) lo = mid + 1;
+            else if (edgeAtom[mid] > atom) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Devuelve el estado de aceptacion de mayor prioridad (menor precedencia) de un conjunto
+     * @param set conjunto de estados
+     * @return estado de aceptacion o -1 si el conjunto no tiene ninguno
+     */
+    public int acceptingState(BitSet set) {
+        int mejor = -1;
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            if (accept[s] && (mejor < 0 || precedence[s] < precedence[mejor])) mejor = s;
+        }
+        return mejor;
+    }
+
+    /**
+     * Clasifica un caracter en su atomo
+     * @param c caracter leido
+     * @return indice del atomo o -1 si el automata no tiene transiciones con el caracter
+     */
+    public int classify(char c) {
+        return classifier.classify(c);
+    }
+
+    public int getNumAtoms() {
+        return classifier.getNumAtoms();
+    }
+
+    public int getNumStates() {
+        return numStates;
+    }
+
+    public boolean isAccept(int state) {
+        return accept[state];
+    }
+
+    public int getPrecedence(int state) {
+        return precedence[state];
+    }
+
+    public String getTokenType(int state) {
+        return tokenTypes[state];
+    }
+}
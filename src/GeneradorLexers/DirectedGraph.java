@@ -1,6 +1,7 @@
 package GeneradorLexers;
 
-import java.io.Serializable;
+import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -22,7 +23,8 @@ public class DirectedGraph  implements Serializable {
     private  HashMap<Integer, NodeClass> nodeMap = new HashMap<Integer, DirectedGraph.NodeClass>();
     private  HashSet<NodeClass> nodeInitialMap = new HashSet<DirectedGraph.NodeClass>();  // Guardar nodos iniciales
     private  HashSet<NodeClass> nodeFinalMap = new HashSet<DirectedGraph.NodeClass>();  // Guardar nodos finales
-    private  HashSet<String> alphabet = new HashSet<String>();  // Simbolos aceptados por el automata
+    private  BitSet alphabet = new BitSet();  // Simbolos aceptados por el automata (ver SymbolTable)
+    private transient CharClassifier classifier;  // Se crea al simular y se descarta al cambiar el alfabeto
 
     /**
      * Contructor de la clase GeneradorLexers.DirectedGraph
@@ -38,7 +40,10 @@ public class DirectedGraph  implements Serializable {
          */
         boolean Final, Start;
         int  id;
-        LinkedList<edgeContents> edges;
+        LinkedList<edgeContents> edges;  // Todas las transiciones salientes, epsilon incluidas
+        private ArrayList<NodeClass> epsilonTargets;  // Destinos de las transiciones epsilon (e-closure)
+        private HashMap<Integer, NodeClass> targetIndex;  // Simbolo -> primer destino (busqueda de DFA), sin epsilon
+        private HashMap<Integer, LinkedList<NodeClass>> targetsIndex;  // Simbolo -> todos los destinos (busqueda de NFA), sin epsilon
         private int precedence;
         private String tokenType;
 
@@ -55,6 +60,61 @@ public class DirectedGraph  implements Serializable {
             this.Final = isFinal;
             this.Start = isStart;
             edges = new LinkedList<DirectedGraph.edgeContents>();
+            epsilonTargets = new ArrayList<NodeClass>(2);
+            targetIndex = new HashMap<Integer, NodeClass>();
+            targetsIndex = new HashMap<Integer, LinkedList<NodeClass>>();
+        }
+
+        /**
+         * Agrega una transicion saliente al nodo y la registra en los indices por simbolo o en los destinos epsilon.
+         * Una transicion que ya pertenece al nodo (al copiar un automata dentro de otro) no se agrega de nuevo.
+         * @param edge transicion que sale de este nodo
+         */
+        void addOutgoingEdge(edgeContents edge){
+            if (edge.registeredIn == this) return;
+            edge.registeredIn = this;
+            edges.add(edge);
+            if (edge.symbol == SymbolTable.EPSILON){
+                epsilonTargets.add(edge.finishingNode);
+                return;
+            }
+
+            if (!targetIndex.containsKey(edge.symbol)) targetIndex.put(edge.symbol, edge.finishingNode);
+            LinkedList<NodeClass> destinos = targetsIndex.get(edge.symbol);
+            if (destinos == null){
+                destinos = new LinkedList<NodeClass>();
+                targetsIndex.put(edge.symbol, destinos);
+            }
+            destinos.add(edge.finishingNode);
+        }
+
+        /**
+         * Devuelve el destino de la primera transicion con un simbolo, pensado para estados de un DFA
+         * @param symbol simbolo de la transicion
+         * @return nodo destino o null si no existe transicion
+         */
+        public NodeClass getTarget(int symbol){
+            return targetIndex.get(symbol);
+        }
+
+        /**
+         * Devuelve todos los destinos de las transiciones con un simbolo, pensado para estados de un NFA
+         * @param symbol simbolo de la transicion
+         * @return nodos destino, vacio si no existe transicion. No debe modificarse.
+         */
+        public List<NodeClass> getTargets(int symbol){
+            if (symbol == SymbolTable.EPSILON) return epsilonTargets;
+            LinkedList<NodeClass> destinos = targetsIndex.get(symbol);
+            if (destinos == null) return Collections.emptyList();
+            return destinos;
+        }
+
+        /**
+         * Devuelve los destinos de las transiciones epsilon, sin recorrer las transiciones con simbolo
+         * @return nodos destino. No debe modificarse.
+         */
+        public List<NodeClass> getEpsilonTargets(){
+            return epsilonTargets;
         }
 
         /**
@@ -149,18 +209,19 @@ public class DirectedGraph  implements Serializable {
          */
         NodeClass startingNode;
         NodeClass finishingNode;
-        String transition;
+        int symbol;
+        NodeClass registeredIn;  // Nodo en cuya lista de transiciones ya esta la transicion
 
         /**
          * Contructor de la clase de transicion.
          * @param startingNode indica desde que nodo inicia la transicion
          * @param finishingNode indica a que nodo se dirige la transicion
-         * @param transition indica la condicion para que se cumpla la transicion
+         * @param symbol indica el simbolo (de SymbolTable) para que se cumpla la transicion
          */
-        public edgeContents( NodeClass startingNode, NodeClass finishingNode, String transition){
+        public edgeContents( NodeClass startingNode, NodeClass finishingNode, int symbol){
             this.startingNode = startingNode;
             this.finishingNode = finishingNode;
-            this.transition = transition;
+            this.symbol = symbol;
         }
 
         /**
@@ -184,7 +245,15 @@ public class DirectedGraph  implements Serializable {
         }
 
         public String getTransition() {
-            return transition;
+            return SymbolTable.label(symbol);
+        }
+
+        public int getSymbol() {
+            return symbol;
+        }
+
+        public boolean isEpsilon() {
+            return symbol == SymbolTable.EPSILON;
         }
 
         @Override
@@ -226,9 +295,20 @@ public class DirectedGraph  implements Serializable {
      * @param transition Identificador de la transicion
      */
     public void addEdges(DirectedGraph g, NodeClass startingNode, NodeClass finishingNode, String transition ){
-        edgeContents edge = new edgeContents(startingNode, finishingNode, transition);
+        addEdges(g, startingNode, finishingNode, SymbolTable.intern(transition));
+    }
+
+    /**
+     * Agregar y crear una transicion al automata deseado a partir de un simbolo ya internado
+     * @param g automata a agregar transicion
+     * @param startingNode Nodo desde el que sale la transicion
+     * @param finishingNode Nodo al que llega la transicion
+     * @param symbol simbolo de la transicion (ver SymbolTable)
+     */
+    public void addEdges(DirectedGraph g, NodeClass startingNode, NodeClass finishingNode, int symbol ){
+        edgeContents edge = new edgeContents(startingNode, finishingNode, symbol);
         g.edges.add(edge);  // Agregando a automata
-        startingNode.edges.add(edge);  // Agregando transision a transiciones de nodo inicial
+        startingNode.addOutgoingEdge(edge);  // Agregando transision a transiciones de nodo inicial
     }
 
     /**
@@ -238,7 +318,7 @@ public class DirectedGraph  implements Serializable {
      */
     public void addEdges(DirectedGraph g, edgeContents edgeToAdd ){
         g.edges.add(edgeToAdd);
-        edgeToAdd.startingNode.edges.add(edgeToAdd);
+        edgeToAdd.startingNode.addOutgoingEdge(edgeToAdd);
     }
 
     /**
@@ -317,82 +397,255 @@ public class DirectedGraph  implements Serializable {
      * @return descripcion de automata
      */
     public String automataDescription(){
-        // Nodos
-        LinkedList<DirectedGraph.NodeClass> nodos = getAllNodes();
-        String resultNodos = "Estados: {";
+        StringBuilder resultado = new StringBuilder();
+        try {
+            AutomatonWriter.writeText(this, resultado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // StringBuilder no lanza IOException
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Obtiene las estadisticas de forma y tamaño del automata en una sola pasada, sin construir la descripcion en
+     * texto de automataDescription()
+     * @return estadisticas del automata
+     */
+    public AutomatonStats stats(){
+        int[] grados = new int[nodes.size()];
+        int numEdges = 0, numEpsilon = 0;
+        long bytes = AutomatonStats.linkedListBytes(nodes.size()) + AutomatonStats.linkedListBytes(edges.size())
+                + AutomatonStats.hashMapBytes(nodes.size()) + (long) nodes.size() * AutomatonStats.INTEGER
+                + AutomatonStats.hashMapBytes(nodeInitialMap.size()) + AutomatonStats.hashMapBytes(nodeFinalMap.size())
+                + AutomatonStats.array(alphabet.size() / 32);
+
         int contador = 0;
-        for (DirectedGraph.NodeClass i: nodos) {
-            resultNodos = resultNodos + String.valueOf((i.id));
-            if (contador < nodos.size()-1){
-                resultNodos = resultNodos + ", ";
+        for (NodeClass nodo: nodes) {
+            grados[contador++] = nodo.edges.size();
+            numEdges += nodo.edges.size();
+            numEpsilon += nodo.epsilonTargets.size();
+
+            // Nodo, sus transiciones y sus indices
+            bytes += 48 + AutomatonStats.linkedListBytes(nodo.edges.size()) + 32L * nodo.edges.size();
+            bytes += AutomatonStats.ARRAY_LIST + AutomatonStats.array(Math.max(nodo.epsilonTargets.size(), 2));
+            bytes += AutomatonStats.hashMapBytes(nodo.targetIndex.size()) + AutomatonStats.hashMapBytes(nodo.targetsIndex.size());
+            for (LinkedList<NodeClass> destinos: nodo.targetsIndex.values()) {
+                bytes += AutomatonStats.linkedListBytes(destinos.size());
             }
-            else {
-                resultNodos = resultNodos + "}\n";
-            }
-            contador ++;
         }
 
-        resultNodos += "\t- Son " + contador + " estados\n";
+        return new AutomatonStats(nodes.size(), numEdges, numEpsilon, grados, alphabet.cardinality(),
+                nodeFinalMap.size(), bytes);
+    }
 
-        // Nodo Inicial
-        resultNodos = resultNodos + "Estado inicial: {";
-        contador = 0;
-        for (NodeClass i: nodeInitialMap) {
-            resultNodos = resultNodos + String.valueOf((i.id));
-            if (contador < nodeInitialMap.size()-1){
-                resultNodos = resultNodos + ", ";
+    /**
+     * Une varios automatas en uno nuevo con un solo estado inicial (ID 0) que tiene una transicion epsilon hacia el
+     * inicial de cada automata. Los estados de aceptacion se conservan con su precedencia y tipo de token, por lo que
+     * el resultado puede tener varios finales (como el reconocedor de tokens del Lexer). Los automatas originales no se
+     * modifican y sus IDs no necesitan ser distintos: los estados se renumeran en un rango contiguo.
+     * @param automatas automatas a unir, en orden
+     * @return automata union
+     */
+    public static DirectedGraph union(List<DirectedGraph> automatas) {
+        DirectedGraph resultado = new DirectedGraph();
+        resultado.addNode(resultado, 0, true, false);
+        NodeClass inicial = resultado.getParticularNode(0);
+
+        int siguienteId = 1;
+        BitSet alfabeto = new BitSet();
+        for (DirectedGraph automata: automatas) {
+            HashMap<Integer, NodeClass> copias = copyInto(resultado, automata, siguienteId, true);
+            siguienteId += automata.nodes.size();
+            resultado.addEdges(resultado, inicial, copias.get(automata.getOneInicialNode().id), SymbolTable.EPSILON);
+            alfabeto.or(automata.alphabet);
+        }
+
+        resultado.setAlphabet(alfabeto);
+        return resultado;
+    }
+
+    /**
+     * Concatena varios automatas en uno nuevo: los finales de cada automata pasan al inicial del siguiente con una
+     * transicion epsilon y solo los finales del ultimo quedan como aceptacion. Los automatas originales no se
+     * modifican y los estados se renumeran en un rango contiguo desde 0.
+     * @param automatas automatas a concatenar, en orden (al menos uno)
+     * @return automata concatenacion
+     */
+    public static DirectedGraph concat(List<DirectedGraph> automatas) {
+        DirectedGraph resultado = new DirectedGraph();
+        int siguienteId = 0;
+        BitSet alfabeto = new BitSet();
+        LinkedList<NodeClass> finalesAnteriores = null;
+        int ultimo = automatas.size() - 1;
+        int contador = 0;
+        for (DirectedGraph automata: automatas) {
+            HashMap<Integer, NodeClass> copias = copyInto(resultado, automata, siguienteId, contador == ultimo);
+            siguienteId += automata.nodes.size();
+            NodeClass inicial = copias.get(automata.getOneInicialNode().id);
+
+            if (finalesAnteriores == null) {
+                inicial.setStart(true);
+            } else {
+                for (NodeClass finalAnterior: finalesAnteriores) {
+                    resultado.addEdges(resultado, finalAnterior, inicial, SymbolTable.EPSILON);
+                }
             }
-            else {
-                resultNodos = resultNodos + "}\n";
+
+            // Guardar finales para enlazarlos con el siguiente automata
+            finalesAnteriores = new LinkedList<NodeClass>();
+            for (NodeClass nodo: automata.nodeFinalMap) {
+                finalesAnteriores.add(copias.get(nodo.id));
             }
+            alfabeto.or(automata.alphabet);
             contador++;
         }
 
+        resultado.setAlphabet(alfabeto);
+        return resultado;
+    }
+
+    /**
+     * Concatena dos automatas sin modificarlos
+     * @param op1 primer automata
+     * @param op2 segundo automata
+     * @return automata concatenacion
+     */
+    public static DirectedGraph concat(DirectedGraph op1, DirectedGraph op2) {
+        return concat(Arrays.asList(op1, op2));
+    }
 
-        // Nodo Final
-        resultNodos = resultNodos + "Estado(s) de aceptacion: {";
-        contador = 0;
-        for (NodeClass i: nodeFinalMap) {
-            resultNodos = resultNodos + String.valueOf((i.id));
-            if (contador < nodeFinalMap.size()-1){
-                resultNodos += ", ";
-            }
-            else {
-                resultNodos = resultNodos + "}\n";
-            }
-            contador ++;
+    /**
+     * Copia los estados y transiciones de un automata dentro de otro en una sola pasada. Los estados copiados no son
+     * iniciales y solo son de aceptacion si se indica.
+     * @param destino automata en el que se copia
+     * @param origen automata a copiar
+     * @param primerId ID del primer estado copiado, los demas son consecutivos
+     * @param conservarFinales si los estados de aceptacion del origen siguen siendolo en la copia
+     * @return mapa de ID original a estado copiado
+     */
+    private static HashMap<Integer, NodeClass> copyInto(DirectedGraph destino, DirectedGraph origen, int primerId,
+                                                        boolean conservarFinales) {
+        HashMap<Integer, NodeClass> copias = new HashMap<Integer, NodeClass>(origen.nodes.size() * 2);
+        int id = primerId;
+        for (NodeClass nodo: origen.nodes) {
+            destino.addNode(destino, id, false, conservarFinales && nodo.isFinal());
+            NodeClass copia = destino.getParticularNode(id);
+            copia.setPrecedence(nodo.getPrecedence());
+            copia.setTokenType(nodo.getTokenType());
+            copias.put(nodo.id, copia);
+            id++;
         }
 
-        // Simbolos
-        LinkedList<DirectedGraph.edgeContents> edges = getEdges();
-        String resultEdges = "Simbolos: {";
-        contador = 0;
-        for (String i: alphabet) {
-            resultEdges = resultEdges + i;
-            if (contador < alphabet.size()-1){
-                resultEdges = resultEdges + ", ";
-            }
-            else {
-                resultEdges = resultEdges + "}\n";
+        for (NodeClass nodo: origen.nodes) {
+            NodeClass copia = copias.get(nodo.id);
+            for (edgeContents edge: nodo.edges) {
+                NodeClass destinoCopia = copias.get(edge.finishingNode.id);
+                if (destinoCopia == null) continue;  // Transicion hacia un nodo que no pertenece al automata
+                destino.addEdges(destino, copia, destinoCopia, edge.symbol);
             }
-            contador ++;
         }
+        return copias;
+    }
 
-        // Edges
-        resultEdges = resultEdges + "Transiciones: {";
-        contador = 0;
-        for (DirectedGraph.edgeContents i: edges) {
-            resultEdges = resultEdges + "(" + i.getStartingNode().getId() + ", " + i.getTransition() + ", " + i.getFinishingNode().getId() + ")";
-            if (contador < edges.size()-1){
-                resultEdges = resultEdges + ", ";
-            }
-            else {
-                resultEdges = resultEdges + "}\n";
+    /**
+     * Convierte el automata terminado en su representacion compacta e inmutable (CSR). Los estados se numeran en el
+     * orden de getAllNodes() y las transiciones conservan sus simbolos de SymbolTable.
+     * @return automata compacto equivalente
+     */
+    public FrozenAutomaton freeze(){
+        int n = nodes.size();
+
+        // Numerar estados de forma densa
+        HashMap<NodeClass, Integer> indices = new HashMap<NodeClass, Integer>(n * 2);
+        int[] stateIds = new int[n];
+        int[] precedence = new int[n];
+        String[] tokenTypes = new String[n];
+        BitSet acceptStates = new BitSet(n);
+        int contador = 0;
+        for (NodeClass nodo: nodes) {
+            indices.put(nodo, contador);
+            stateIds[contador] = nodo.id;
+            precedence[contador] = nodo.precedence;
+            tokenTypes[contador] = nodo.tokenType;
+            if (nodo.isFinal()) acceptStates.set(contador);
+            contador++;
+        }
+
+        // Aplanar transiciones de cada nodo
+        int m = 0;
+        for (NodeClass nodo: nodes) m += nodo.edges.size();
+        int[] from = new int[m], to = new int[m], symbol = new int[m];
+        int e = 0;
+        for (NodeClass nodo: nodes) {
+            int origen = indices.get(nodo);
+            for (edgeContents edge: nodo.edges) {
+                Integer destino = indices.get(edge.finishingNode);
+                if (destino == null) continue;  // Transicion hacia un nodo que no pertenece al automata
+                from[e] = origen;
+                to[e] = destino;
+                symbol[e] = edge.symbol;
+                e++;
             }
-            contador ++;
         }
-        resultEdges += "\t- Son " + contador + " transiciones.";
-        return resultNodos + resultEdges;
+
+        int start = nodeInitialMap.isEmpty() ? 0 : indices.get(getOneInicialNode());
+        return FrozenAutomaton.build(n, from, to, symbol, e, (BitSet) alphabet.clone(), start, acceptStates, precedence, tokenTypes, stateIds);
+    }
+
+    /**
+     * Compila el automata terminado para reconocer tokens: sin transiciones epsilon e inmutable, de modo que una sola
+     * instancia se puede compartir entre varios hilos. Antes de compilar se eliminan las transiciones epsilon y se
+     * unen los estados equivalentes (ver NFAReducer), lo que reduce el trabajo por caracter.
+     * @return automata compilado equivalente
+     */
+    public CompiledAutomaton compile(){
+        return CompiledAutomaton.compile(new NFAReducer().reduce(freeze()));
+    }
+
+    /**
+     * Escribe el automata en el formato binario de AutomatonCodec
+     * @param out destino del automata
+     * @throws IOException si el destino falla
+     */
+    public void write(DataOutput out) throws IOException {
+        AutomatonCodec.write(this, out);
+    }
+
+    /**
+     * Lee un automata guardado con write()
+     * @param in origen del automata
+     * @return automata leido
+     * @throws IOException si el origen falla o no tiene el formato esperado
+     */
+    public static DirectedGraph read(DataInput in) throws IOException {
+        return AutomatonCodec.read(in);
+    }
+
+    /**
+     * Lee un automata guardado con write() desde un buffer, por ejemplo un archivo mapeado en memoria
+     * @param buffer origen del automata
+     * @return automata leido
+     * @throws IOException si el buffer no tiene el formato esperado
+     */
+    public static DirectedGraph read(ByteBuffer buffer) throws IOException {
+        return AutomatonCodec.read(buffer);
+    }
+
+    /**
+     * La serializacion de Java usa el formato de AutomatonCodec, porque los nodos y transiciones no son Serializable
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        AutomatonCodec.write(this, out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+        nodes = new LinkedList<DirectedGraph.NodeClass>();
+        edges = new LinkedList<DirectedGraph.edgeContents>();
+        nodeMap = new HashMap<Integer, DirectedGraph.NodeClass>();
+        nodeInitialMap = new HashSet<DirectedGraph.NodeClass>();
+        nodeFinalMap = new HashSet<DirectedGraph.NodeClass>();
+        alphabet = new BitSet();
+        AutomatonCodec.readInto(this, in);
     }
 
     public HashSet<NodeClass> getNodeFinalMap() {
@@ -404,12 +657,40 @@ public class DirectedGraph  implements Serializable {
     }
 
 
-    public HashSet<String> getAlphabet() {
+    public BitSet getAlphabet() {
         return alphabet;
     }
 
-    public void setAlphabet(HashSet<String> alphabet) {
+    /**
+     * Cambia el alfabeto del automata. Si se modifica el BitSet devuelto por getAlphabet() se debe llamar a este
+     * metodo para descartar el clasificador de caracteres.
+     * @param alphabet simbolos del automata
+     */
+    public void setAlphabet(BitSet alphabet) {
         this.alphabet = alphabet;
+        this.classifier = null;
+    }
+
+    /**
+     * Devuelve el clasificador de caracteres del alfabeto, creandolo si no existe
+     * @return clasificador en atomos del alfabeto
+     */
+    public CharClassifier getCharClassifier() {
+        CharClassifier actual = classifier;
+        if (actual == null) {
+            actual = new CharClassifier(alphabet);
+            classifier = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Devuelve los simbolos del alfabeto cuyas transiciones aceptan un caracter
+     * @param c caracter leido
+     * @return simbolos, vacio si ninguno
+     */
+    public int[] getSymbolsFor(char c) {
+        return getCharClassifier().symbolsFor(c);
     }
 
 }
\ No newline at end of file
@@ -14,7 +14,7 @@ public class Dtransition  implements Serializable {
      */
     Dstate startingState;
     Dstate finishingState;
-    String transition;
+    int transition;  // Simbolo de SymbolTable
 
     /**
      * Contructor de la clase de GeneradorLexers.Dtransition.
@@ -22,7 +22,7 @@ public class Dtransition  implements Serializable {
      * @param finishingState indica a que nodo se dirige la transicion
      * @param transition indica la condicion para que se cumpla la transicion
      */
-    public Dtransition(Dstate finishingState, Dstate startingState, String transition) {
+    public Dtransition(Dstate finishingState, Dstate startingState, int transition) {
         this.finishingState = finishingState;
         this.startingState = startingState;
         this.transition = transition;
@@ -44,11 +44,11 @@ public class Dtransition  implements Serializable {
         this.startingState = startingState;
     }
 
-    public String getTransition() {
+    public int getTransition() {
         return transition;
     }
 
-    public void setTransition(String transition) {
+    public void setTransition(int transition) {
         this.transition = transition;
     }
 }
@@ -0,0 +1,382 @@
+package GeneradorLexers;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * La presente clase tiene como objetivo representar un automata terminado de forma compacta e inmutable. Los estados
+ * son indices densos [0, n) y las transiciones se guardan en formato CSR (compressed sparse row): las transiciones del
+ * estado s son las posiciones [rowStart[s], rowStart[s + 1]) de los arreglos target y label, ordenadas por label. Las
+ * etiquetas son simbolos de {@link SymbolTable}. Las transiciones epsilon se guardan aparte, en su propio CSR
+ * (epsRowStart, epsTarget), para que el e-closure y el movimiento por simbolo recorran solo lo que necesitan.
+ * Se obtiene con {@link DirectedGraph#freeze()} y lo consumen directamente Simulator, NFAToDFA y HopcroftMinimizator.
+ * Al serializarse, los simbolos se escriben por contenido y se internan de nuevo al leer, porque los enteros de
+ * SymbolTable no son estables entre ejecuciones.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class FrozenAutomaton implements Serializable {
+    /**
+     * Atributos
+     */
+    private final int[] rowStart;  // Inicio de las transiciones de cada estado, tiene n + 1 elementos
+    private final int[] target;  // Estado destino de cada transicion
+    private transient int[] label;  // Simbolo de cada transicion, solo se asigna al construir o deserializar
+    private final int[] epsRowStart;  // Inicio de las transiciones epsilon de cada estado, tiene n + 1 elementos
+    private final int[] epsTarget;  // Estado destino de cada transicion epsilon
+    private transient BitSet alphabet;  // Simbolos del automata, sin epsilon, solo se asigna al construir o deserializar
+    private transient volatile CharClassifier classifier;  // Se crea en la primera simulacion
+    private final int startState;
+    private final BitSet acceptStates;
+    private final int[] precedence;  // Precedencia del token de cada estado
+    private final String[] tokenTypes;  // Tipo de token de cada estado (null si no tiene)
+    private final int[] stateIds;  // ID original de cada estado en el DirectedGraph
+
+    /**
+     * Constructor. Los arreglos pasan a ser propiedad del automata y no deben modificarse despues.
+     */
+    FrozenAutomaton(int[] rowStart, int[] target, int[] label, int[] epsRowStart, int[] epsTarget, BitSet alphabet,
+                    int startState, BitSet acceptStates, int[] precedence, String[] tokenTypes, int[] stateIds) {
+        this.rowStart = rowStart;
+        this.target = target;
+        this.label = label;
+        this.epsRowStart = epsRowStart;
+        this.epsTarget = epsTarget;
+        this.alphabet = alphabet;
+        this.startState = startState;
+        this.acceptStates = acceptStates;
+        this.precedence = precedence;
+        this.tokenTypes = tokenTypes;
+        this.stateIds = stateIds;
+    }
+
+    /**
+     * Construye un automata compacto a partir de transiciones sin ordenar. Ordena las transiciones de cada estado por
+     * simbolo para permitir busqueda binaria y separa las transiciones epsilon.
+     * @param numStates cantidad de estados
+     * @param from estado origen de cada transicion
+     * @param to estado destino de cada transicion
+     * @param symbol simbolo de cada transicion
+     * @param numEdges cantidad de transiciones validas en los arreglos anteriores
+     */
+    static FrozenAutomaton build(int numStates, int[] from, int[] to, int[] symbol, int numEdges, BitSet alphabet,
+                                 int startState, BitSet acceptStates, int[] precedence, String[] tokenTypes, int[] stateIds) {
+        // Contar transiciones por estado
+        int[] rowStart = new int[numStates + 1];
+        int[] epsRowStart = new int[numStates + 1];
+        for (int e = 0; e < numEdges; e++) {
+            if (symbol[e] == SymbolTable.EPSILON) epsRowStart[from[e] + 1]++;
+            else rowStart[from[e] + 1]++;
+        }
+        for (int s = 0; s < numStates; s++) {
+            rowStart[s + 1] += rowStart[s];
+            epsRowStart[s + 1] += epsRowStart[s];
+        }
+
+        // Colocar cada transicion en su fila
+        int[] target = new int[rowStart[numStates]];
+        int[] label = new int[rowStart[numStates]];
+        int[] epsTarget = new int[epsRowStart[numStates]];
+        int[] next = Arrays.copyOf(rowStart, numStates);
+        int[] epsNext = Arrays.copyOf(epsRowStart, numStates);
+        for (int e = 0; e < numEdges; e++) {
+            if (symbol[e] == SymbolTable.EPSILON) {
+                epsTarget[epsNext[from[e]]++] = to[e];
+            } else {
+                int pos = next[from[e]]++;
+                target[pos] = to[e];
+                label[pos] = symbol[e];
+            }
+        }
+
+        sortRows(numStates, rowStart, label, target);
+        return new FrozenAutomaton(rowStart, target, label, epsRowStart, epsTarget, alphabet, startState, acceptStates, precedence, tokenTypes, stateIds);
+    }
+
+    /**
+     * Ordena cada fila por simbolo y destino (insercion, las filas suelen ser cortas)
+     */
+    private static void sortRows(int numStates, int[] rowStart, int[] label, int[] target) {
+        for (int s = 0; s < numStates; s++) {
+            for (int i = rowStart[s] + 1; i < rowStart[s + 1]; i++) {
+                int l = label[i], t = target[i];
+                int j = i - 1;
+                while (j >= rowStart[s] && (label[j] > l || (label[j] == l && target[j] > t))) {
+                    label[j + 1] = label[j];
+                    target[j + 1] = target[j];
+                    j--;
+                }
+                label[j + 1] = l;
+                target[j + 1] = t;
+            }
+        }
+    }
+
+    /**
+     * Escribe los simbolos de las transiciones y del alfabeto por contenido: una tabla con cada simbolo distinto y,
+     * para cada transicion y cada simbolo del alfabeto, su indice en esa tabla
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        BitSet usados = (BitSet) alphabet.clone();
+        for (int l: label) usados.set(l);
+        int[] simbolos = usados.stream().toArray();
+        out.writeInt(simbolos.length);
+        for (int simbolo: simbolos) SymbolTable.writeSymbol(out, simbolo);
+
+        int[] indices = new int[label.length];
+        for (int e = 0; e < label.length; e++) indices[e] = Arrays.binarySearch(simbolos, label[e]);
+        out.writeObject(indices);
+        int[] alfabeto = alphabet.stream().toArray();
+        for (int i = 0; i < alfabeto.length; i++) alfabeto[i] = Arrays.binarySearch(simbolos, alfabeto[i]);
+        out.writeObject(alfabeto);
+    }
+
+    /**
+     * Interna los simbolos en la tabla de este proceso y vuelve a ordenar las filas, porque los simbolos nuevos pueden
+     * tener otro orden
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int[] simbolos = new int[in.readInt()];
+        for (int i = 0; i < simbolos.length; i++) simbolos[i] = SymbolTable.readSymbol(in);
+
+        label = (int[]) in.readObject();
+        for (int e = 0; e < label.length; e++) label[e] = simbolos[label[e]];
+        alphabet = new BitSet();
+        for (int indice: (int[]) in.readObject()) alphabet.set(simbolos[indice]);
+        sortRows(rowStart.length - 1, rowStart, label, target);
+    }
+
+    /**
+     * Devuelve el primer destino de un estado con un simbolo, pensado para DFAs
+     * @param state estado origen
+     * @param symbol simbolo de la transicion
+     * @return estado destino o -1 si no existe transicion
+     */
+    public int step(int state, int symbol) {
+        int pos = firstEdge(state, symbol);
+        return pos < 0 ? -1 : target[pos];
+    }
+
+    /**
+     * Busca (binariamente) la primera transicion de un estado con cierto simbolo
+     * @param state estado origen
+     * @param symbol simbolo de la transicion
+     * @return la posicion de la transicion en target/label o -1 si no existe
+     */
+    public int firstEdge(int state, int symbol) {
+        int lo = rowStart[state], hi = rowStart[state + 1] - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (label[mid] < symbol) {
+                lo = mid + 1;
+            } else {
+                if (label[mid] == symbol) found = mid;
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Expande un conjunto de estados con todos los estados alcanzables por epsilon (e-closure del conjunto). El
+     * conjunto se modifica en el lugar. Si el automata no tiene transiciones epsilon (por ejemplo, el de Glushkov) el
+     * conjunto ya esta cerrado y se devuelve sin recorrerlo.
+     * @param set conjunto de estados a expandir
+     * @return el mismo conjunto, ya cerrado
+     */
+    public BitSet eClosure(BitSet set) {
+        if (epsTarget.length == 0) return set;
+        int[] pila = new int[Math.max(set.cardinality(), 16)];
+        int tope = 0;
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            if (tope == pila.length) pila = Arrays.copyOf(pila, tope * 2);
+            pila[tope++] = s;
+        }
+
+        while (tope > 0) {
+            int actual = pila[--tope];
+            for (int e = epsRowStart[actual]; e < epsRowStart[actual + 1]; e++) {
+                int destino = epsTarget[e];
+                if (!set.get(destino)) {
+                    set.set(destino);
+                    if (tope == pila.length) pila = Arrays.copyOf(pila, tope * 2);
+                    pila[tope++] = destino;
+                }
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Obtiene el conjunto de estados alcanzados desde un conjunto con un simbolo, sin aplicar e-closure
+     * @param set conjunto origen
+     * @param symbol simbolo de la transicion
+     * @return conjunto destino
+     */
+    public BitSet move(BitSet set, int symbol) {
+        BitSet resultado = new BitSet(getNumStates());
+        for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+            for (int e = firstEdge(s, symbol); e >= 0 && e < rowStart[s + 1] && label[e] == symbol; e++) {
+                resultado.set(target[e]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Indica si algun estado del automata tiene transiciones epsilon
+     * @return verdadero si existe al menos una transicion epsilon
+     */
+    public boolean hasEpsilonEdges() {
+        return epsTarget.length > 0;
+    }
+
+    /**
+     * Reconstruye un DirectedGraph equivalente, util para renderizar o seguir utilizando los algoritmos sobre objetos.
+     * Los IDs de los nodos son los indices de estado.
+     * @return automata no compacto
+     */
+    public DirectedGraph thaw() {
+        DirectedGraph g = new DirectedGraph();
+        int n = getNumStates();
+        for (int s = 0; s < n; s++) {
+            g.addNode(g, s, s == startState, acceptStates.get(s));
+            DirectedGraph.NodeClass nodo = g.getParticularNode(s);
+            nodo.setPrecedence(precedence[s]);
+            nodo.setTokenType(tokenTypes[s]);
+        }
+        for (int s = 0; s < n; s++) {
+            for (int e = epsRowStart[s]; e < epsRowStart[s + 1]; e++) {
+                g.addEdges(g, g.getParticularNode(s), g.getParticularNode(epsTarget[e]), SymbolTable.EPSILON);
+            }
+            for (int e = rowStart[s]; e < rowStart[s + 1]; e++) {
+                g.addEdges(g, g.getParticularNode(s), g.getParticularNode(target[e]), label[e]);
+            }
+        }
+        g.setAlphabet((BitSet) alphabet.clone());
+        return g;
+    }
+
+    /**
+     * Devuelve los simbolos del alfabeto (sin epsilon). No debe modificarse.
+     * @return conjunto de simbolos
+     */
+    public BitSet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Obtiene las estadisticas de forma y tamaño del automata. La memoria es la de los arreglos que lo componen.
+     * @return estadisticas del automata
+     */
+    public AutomatonStats stats() {
+        int n = getNumStates();
+        int[] grados = new int[n];
+        for (int s = 0; s < n; s++) {
+            grados[s] = rowStart[s + 1] - rowStart[s] + epsRowStart[s + 1] - epsRowStart[s];
+        }
+
+        long bytes = AutomatonStats.HEADER + 10 * AutomatonStats.REFERENCE
+                + AutomatonStats.array(rowStart.length) + AutomatonStats.array(target.length)
+                + AutomatonStats.array(label.length) + AutomatonStats.array(epsRowStart.length)
+                + AutomatonStats.array(epsTarget.length) + AutomatonStats.array(precedence.length)
+                + AutomatonStats.array(tokenTypes.length) + AutomatonStats.array(stateIds.length)
+                + AutomatonStats.array(alphabet.size() / 32) + AutomatonStats.array(acceptStates.size() / 32);
+        return new AutomatonStats(n, target.length + epsTarget.length, epsTarget.length, grados,
+                alphabet.cardinality(), acceptStates.cardinality(), bytes);
+    }
+
+    /**
+     * Devuelve el clasificador de caracteres del alfabeto, creandolo si no existe
+     * @return clasificador en atomos del alfabeto
+     */
+    public CharClassifier getCharClassifier() {
+        CharClassifier actual = classifier;
+        if (actual == null) {
+            actual = new CharClassifier(alphabet);
+            classifier = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Devuelve los simbolos del alfabeto cuyas transiciones aceptan un caracter. En un DFA obtenido por NFAToDFA los
+     * simbolos son disjuntos, por lo que hay a lo sumo uno.
+     * @param c caracter leido
+     * @return simbolos, vacio si ninguno
+     */
+    public int[] getSymbolsFor(char c) {
+        return getCharClassifier().symbolsFor(c);
+    }
+
+    public int getNumStates() {
+        return rowStart.length - 1;
+    }
+
+    /**
+     * Cantidad de transiciones con simbolo
+     */
+    public int getNumEdges() {
+        return target.length;
+    }
+
+    public int getNumEpsilonEdges() {
+        return epsTarget.length;
+    }
+
+    public int getEpsilonRowStart(int state) {
+        return epsRowStart[state];
+    }
+
+    public int getEpsilonRowEnd(int state) {
+        return epsRowStart[state + 1];
+    }
+
+    public int getEpsilonTarget(int edge) {
+        return epsTarget[edge];
+    }
+
+    public int getRowStart(int state) {
+        return rowStart[state];
+    }
+
+    public int getRowEnd(int state) {
+        return rowStart[state + 1];
+    }
+
+    public int getTarget(int edge) {
+        return target[edge];
+    }
+
+    public int getLabel(int edge) {
+        return label[edge];
+    }
+
+    public int getStartState() {
+        return startState;
+    }
+
+    public boolean isAccept(int state) {
+        return acceptStates.get(state);
+    }
+
+    public int getPrecedence(int state) {
+        return precedence[state];
+    }
+
+    public String getTokenType(int state) {
+        return tokenTypes[state];
+    }
+
+    public int getStateId(int state) {
+        return stateIds[state];
+    }
+}
@@ -1,6 +1,7 @@
 package GeneradorLexers;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -334,34 +335,33 @@ public class Grammar implements Serializable{
 
     /**
      * Devuelve el conjunto de items que se pueden alcanzar desde un item. Este metodo NO devuelve el item que lo
-     * origina.
+     * origina (salvo que se vuelva a alcanzar). Los items nuevos se procesan con una pila explicita, sin recursion, y
+     * cada item se expande una sola vez, por lo que tambien termina con recursion por la izquierda indirecta.
      * @param item es el item inicial desde el que se desarrollan los otros
-     * @param set es el conjunto resultado que se ira pasando por cada llamada recursiva
+     * @param set es el conjunto resultado, los items que ya contiene no se vuelven a expandir
      * @return devuelve el conjunto de items alcanzados por el item inicial
      */
     public HashSet<Item> closure(Item item, HashSet<Item> set){
-        // Obtener el elemento despues del punto
-        String siguienteNoTerminal = item.getNext();
-        Item itemTemp;
-
-        // Si el siguiente elemento despues del punto es un no terminal1:
-        if (nonTerminals.contains(siguienteNoTerminal) && !siguienteNoTerminal.equals(item.getHead())){
-            // Obtener las producciones del no terminal
-            ArrayList<String> producciones = productions.get(siguienteNoTerminal);
-
-            // Crear un item nuevo por cada produccion del no terminal y agregar su closure
-            for (String produccion : producciones) {
-                itemTemp = new Item(siguienteNoTerminal, produccion.trim().split(" "), 0);
-                set.add(itemTemp);  // Agregar un item punto inicial
-                set.addAll(closure(itemTemp, new HashSet<Item>()));  // Agregar el closure del item nuevo
+        ArrayDeque<Item> pendientes = new ArrayDeque<Item>();
+        pendientes.push(item);
+        while (!pendientes.isEmpty()) {
+            Item actual = pendientes.pop();
+
+            // Obtener el elemento despues del punto
+            String siguienteNoTerminal = actual.getNext();
+
+            // Si el siguiente elemento despues del punto es un no terminal, crear un item nuevo por cada una de sus
+            // producciones y expandirlo despues
+            if (nonTerminals.contains(siguienteNoTerminal) && !siguienteNoTerminal.equals(actual.getHead())){
+                for (String produccion : productions.get(siguienteNoTerminal)) {
+                    Item itemTemp = new Item(siguienteNoTerminal, produccion.trim().split(" "), 0);
+                    if (set.add(itemTemp)) {  // Agregar un item punto inicial
+                        pendientes.push(itemTemp);
+                    }
+                }
             }
-
-            return set;
-
-        } else {
-            // Si es un no terminal, devolver el conjunto que se lleva hasta ahora
-            return set;
         }
+        return set;
     }
 
     /**
@@ -20,7 +20,8 @@ public class HopcroftMinimizator  implements Serializable {
     private LinkedList<DirectedGraph.NodeClass> estadosNoAnalizados;
     private LinkedList<Dstate<DirectedGraph.NodeClass>> dStates = new LinkedList<Dstate<DirectedGraph.NodeClass>>();  // Futuros estados del DFA
     private LinkedList<Dtransition> dTransitions = new LinkedList<Dtransition>();  // Futuros transiciones del DFA
-    private HashSet<String> alfabeto;
+    private BitSet alfabeto;
+    private AutomatonStats inputStats, outputStats;  // Estadisticas del DFA y del DFA minimo de la ultima minimizacion
 
     /**
      * Constructor de la clase
@@ -38,6 +39,7 @@ public class HopcroftMinimizator  implements Serializable {
      */
     public DirectedGraph minimizateDFA(DirectedGraph dfa){
         DirectedGraph minimizedDFA = new DirectedGraph();
+        inputStats = dfa.stats();  // Antes de analizar, porque el listado de estados del dfa se consume
         alfabeto = dfa.getAlphabet();
         estadosNoAnalizados = dfa.getAllNodes();
         createFirstPairs(estadosNoAnalizados);
@@ -45,10 +47,140 @@ public class HopcroftMinimizator  implements Serializable {
         mergeStates(dfa);
         createDTransitions(dfa);
         minimizedDFA = generateDFA(dfa);
+        outputStats = minimizedDFA.stats();
 
         return minimizedDFA;
     }
 
+    /**
+     * Minimiza un DFA compacto refinando particiones sobre arreglos de enteros. Un estado sin transicion con un
+     * simbolo se considera dirigido a un estado muerto implicito, que no aparece en el resultado. Los estados de
+     * aceptacion solo se unen si reconocen el mismo tipo de token.
+     * @param dfa automata compacto a minimizar
+     * @return dfa compacto minimo
+     */
+    public FrozenAutomaton minimizateDFA(FrozenAutomaton dfa){
+        inputStats = dfa.stats();
+        int n = dfa.getNumStates();
+        int muerto = n;  // Estado muerto implicito
+        int[] simbolos = dfa.getAlphabet().stream().toArray();
+        int[] bloque = new int[n + 1];
+
+        // Particion inicial: no aceptacion (incluye al muerto) y aceptacion por tipo de token
+        HashMap<String, Integer> bloquesIniciales = new HashMap<String, Integer>();
+        bloquesIniciales.put("", 0);
+        for (int s = 0; s < n; s++) {
+            String llave = dfa.isAccept(s) ? "#" + dfa.getTokenType(s) + "#" + dfa.getPrecedence(s) : "";
+            Integer b = bloquesIniciales.get(llave);
+            if (b == null) {
+                b = bloquesIniciales.size();
+                bloquesIniciales.put(llave, b);
+            }
+            bloque[s] = b;
+        }
+        bloque[muerto] = 0;
+        int numBloques = bloquesIniciales.size();
+
+        // Refinar hasta que la cantidad de bloques no cambie
+        int[] firma = new int[simbolos.length + 1];  // firma[0] es el bloque propio
+        while (true) {
+            HashMap<Firma, Integer> nuevosBloques = new HashMap<Firma, Integer>();
+            int[] nuevoBloque = new int[n + 1];
+            for (int s = 0; s <= n; s++) {
+                firma[0] = bloque[s];
+                for (int a = 0; a < simbolos.length; a++) {
+                    int destino = s == muerto ? -1 : dfa.step(s, simbolos[a]);
+                    firma[a + 1] = bloque[destino < 0 ? muerto : destino];
+                }
+                Firma llave = new Firma(firma);
+                Integer b = nuevosBloques.get(llave);
+                if (b == null) {
+                    b = nuevosBloques.size();
+                    nuevosBloques.put(llave, b);
+                }
+                nuevoBloque[s] = b;
+            }
+            bloque = nuevoBloque;
+            if (nuevosBloques.size() == numBloques) break;
+            numBloques = nuevosBloques.size();
+        }
+
+        // Numerar los bloques resultantes, el inicial primero y el muerto fuera
+        int[] nuevoEstado = new int[numBloques];
+        Arrays.fill(nuevoEstado, -1);
+        int[] representante = new int[numBloques];
+        int inicial = dfa.getStartState();
+        int contador = 0;
+        nuevoEstado[bloque[inicial]] = contador++;
+        representante[bloque[inicial]] = inicial;
+        for (int s = 0; s < n; s++) {
+            int b = bloque[s];
+            if (nuevoEstado[b] < 0 && b != bloque[muerto]) {
+                nuevoEstado[b] = contador++;
+                representante[b] = s;
+            }
+        }
+
+        // Crear estados y transiciones del dfa minimo
+        int[] precedence = new int[contador];
+        String[] tokenTypes = new String[contador];
+        int[] stateIds = new int[contador];
+        BitSet aceptacion = new BitSet(contador);
+        int[] from = new int[16], to = new int[16], symbol = new int[16];
+        int numEdges = 0;
+        for (int b = 0; b < numBloques; b++) {
+            int estado = nuevoEstado[b];
+            if (estado < 0) continue;
+            int rep = representante[b];
+            stateIds[estado] = estado;
+            precedence[estado] = dfa.getPrecedence(rep);
+            tokenTypes[estado] = dfa.getTokenType(rep);
+            if (dfa.isAccept(rep)) aceptacion.set(estado);
+            if (b == bloque[muerto]) continue;  // El inicial puede ser muerto si el lenguaje es vacio
+
+            for (int e = dfa.getRowStart(rep); e < dfa.getRowEnd(rep); e++) {
+                int destino = nuevoEstado[bloque[dfa.getTarget(e)]];
+                if (bloque[dfa.getTarget(e)] == bloque[muerto]) continue;
+                if (numEdges == from.length) {
+                    from = Arrays.copyOf(from, numEdges * 2);
+                    to = Arrays.copyOf(to, numEdges * 2);
+                    symbol = Arrays.copyOf(symbol, numEdges * 2);
+                }
+                from[numEdges] = estado;
+                to[numEdges] = destino;
+                symbol[numEdges] = dfa.getLabel(e);
+                numEdges++;
+            }
+        }
+
+        FrozenAutomaton minimo = FrozenAutomaton.build(contador, from, to, symbol, numEdges, (BitSet) dfa.getAlphabet().clone(), 0, aceptacion, precedence, tokenTypes, stateIds);
+        outputStats = minimo.stats();
+        return minimo;
+    }
+
+    /**
+     * Firma de un estado durante el refinamiento: su bloque y el bloque destino con cada simbolo
+     */
+    private static class Firma {
+        private final int[] valores;
+        private final int hash;
+
+        Firma(int[] valores) {
+            this.valores = valores.clone();
+            this.hash = Arrays.hashCode(this.valores);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Firma && Arrays.equals(valores, ((Firma) o).valores);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     /**
      * Metodo que tiene como objetivo crear las transiciones entre los nuevos estados creados
      * @param dfa automata del que se utilizaran las transiciones
@@ -56,7 +188,7 @@ public class HopcroftMinimizator  implements Serializable {
     private void createDTransitions(DirectedGraph dfa) {
 
         for (Dstate<DirectedGraph.NodeClass> dEstado: dStates) {
-            for (String input: alfabeto) {
+            for (int input = alfabeto.nextSetBit(0); input >= 0; input = alfabeto.nextSetBit(input + 1)) {
                 // Obtener cualquiera de los estados del conjunto de estados
                 DirectedGraph.NodeClass nodo = dEstado.getConjuntoEstados().iterator().next();
 
@@ -169,7 +301,7 @@ public class HopcroftMinimizator  implements Serializable {
             // Analizar el siguiente paso de cada par no marcado para cada entrada del alfabeto
             for (HashSet<DirectedGraph.NodeClass> par: estadosNoMarcados) {
 
-                for (String input: alfabeto) {
+                for (int input = alfabeto.nextSetBit(0); input >= 0; input = alfabeto.nextSetBit(input + 1)) {
                     // Obtener los siguientes estados por cada entrada
                     Iterator<DirectedGraph.NodeClass> elementos = par.iterator();
                     DirectedGraph.NodeClass estado1 = elementos.next();
@@ -231,7 +363,7 @@ public class HopcroftMinimizator  implements Serializable {
 
     private DirectedGraph generateDFA(DirectedGraph dfa){
         DirectedGraph minimalDFA = new DirectedGraph();
-        HashSet<String> alfabetoNuevo = alfabeto;
+        BitSet alfabetoNuevo = (BitSet) alfabeto.clone();
         minimalDFA.setAlphabet(alfabetoNuevo);
         int contador = 0;
         HashMap<Dstate<DirectedGraph.NodeClass>, Integer> convertDstateToState = new HashMap<Dstate<DirectedGraph.NodeClass>, Integer>(dStates.size(), (float) 1.0);
@@ -263,6 +395,22 @@ public class HopcroftMinimizator  implements Serializable {
         return minimalDFA;
     }
 
+    /**
+     * Estadisticas del dfa de entrada de la ultima minimizacion
+     * @return estadisticas o null si no se ha minimizado ninguno
+     */
+    public AutomatonStats getInputStats() {
+        return inputStats;
+    }
+
+    /**
+     * Estadisticas del dfa minimo de la ultima minimizacion
+     * @return estadisticas o null si no se ha minimizado ninguno
+     */
+    public AutomatonStats getOutputStats() {
+        return outputStats;
+    }
+
     public boolean semiEquals(HashSet<DirectedGraph.NodeClass> nodo1, HashSet<DirectedGraph.NodeClass> nodo2) {
         Iterator<DirectedGraph.NodeClass> elementos1 = nodo1.iterator();
         Iterator<DirectedGraph.NodeClass> elementos2 = nodo2.iterator();
@@ -0,0 +1,254 @@
+package GeneradorLexers;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La presente clase tiene como objetivo simular un automata compilado como un DFA construido bajo demanda. Un estado
+ * del DFA es un conjunto de estados del automata y se crea la primera vez que la entrada llega a el; su transicion con
+ * cada atomo se calcula la primera vez que se usa y queda guardada en el estado. Asi se lexea casi a velocidad de DFA
+ * sin pagar la construccion por subconjuntos completa de los caminos que la entrada nunca recorre.
+ * Los estados se internan en un ConcurrentHashMap y las transiciones se guardan en AtomicReferenceArrays, por lo que
+ * varios hilos pueden simular con la misma instancia. El tamaño estimado de los estados es acotado: al pasarse de
+ * maxBytes se vacia la tabla completa (flush) y los estados se vuelven a construir. Las simulaciones que ya tenian un
+ * estado viejo pueden terminar con el, pero las nuevas empiezan desde la tabla nueva.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class LazyDFA {
+    /**
+     * Tamaño por defecto de la tabla de estados
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Atributos
+     */
+    private final CompiledAutomaton automata;
+    private final long maxBytes;
+    private final ConcurrentHashMap<State, State> states = new ConcurrentHashMap<State, State>();
+    private final State dead;  // Conjunto vacio, no se guarda en la tabla ni se saca
+    private volatile State start;
+    private final AtomicLong bytes = new AtomicLong();  // Suma de los tamaños estimados de los estados de la tabla
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+
+    /**
+     * Crea un DFA perezoso con el tamaño por defecto
+     * @param automata automata a simular, normalmente el reconocedor de tokens
+     */
+    public LazyDFA(CompiledAutomaton automata) {
+        this(automata, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Crea un DFA perezoso
+     * @param automata automata a simular, normalmente el reconocedor de tokens
+     * @param maxBytes tamaño maximo estimado de los estados en bytes
+     */
+    public LazyDFA(CompiledAutomaton automata, long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("Error: el tamaño de la tabla de estados debe ser positivo");
+        this.automata = automata;
+        this.maxBytes = maxBytes;
+        this.dead = new State(new int[0], -1, automata.getNumAtoms());
+        this.start = createStart();
+    }
+
+    /**
+     * Devuelve el estado inicial: la e-closure del estado inicial del automata
+     * @return estado inicial
+     */
+    public State getStartState() {
+        return start;
+    }
+
+    /**
+     * Devuelve el estado alcanzado desde un estado con un caracter, construyendolo si es la primera vez
+     * @param state estado actual
+     * @param c caracter leido
+     * @return estado siguiente, muerto (isDead) si ningun estado del automata tiene transicion
+     */
+    public State step(State state, char c) {
+        int atomo = automata.classify(c);
+        if (atomo < 0 || state == dead) return dead;
+
+        State siguiente = state.next.get(atomo);
+        if (siguiente != null) {
+            hits.increment();
+            return siguiente;
+        }
+        misses.increment();
+        siguiente = intern(automata.step(state.nfaStates, atomo));
+        state.next.set(atomo, siguiente);  // Si otro hilo lo calculo a la vez, ambos obtienen el mismo estado de la tabla
+        return siguiente;
+    }
+
+    /**
+     * Busca el estado de un conjunto, creandolo si no existe. Si la tabla se pasa de maxBytes se vacia antes de
+     * guardar el estado nuevo.
+     */
+    private State intern(BitSet conjunto) {
+        if (conjunto.isEmpty()) return dead;
+        State nuevo = new State(conjunto.stream().toArray(), automata.acceptingState(conjunto), automata.getNumAtoms());
+        State existente = states.get(nuevo);
+        if (existente != null) return existente;
+
+        long estimado = nuevo.estimatedBytes();
+        if (bytes.get() + estimado > maxBytes) flushIfFull(estimado);
+        existente = states.putIfAbsent(nuevo, nuevo);
+        if (existente != null) return existente;
+        bytes.addAndGet(estimado);
+        return nuevo;
+    }
+
+    /**
+     * Devuelve el tipo de token que reconoce un estado
+     * @param state estado del DFA
+     * @return tipo de token de mayor prioridad o null si el estado no es de aceptacion
+     */
+    public String getTokenType(State state) {
+        return state.accepting < 0 ? null : automata.getTokenType(state.accepting);
+    }
+
+    /**
+     * Vacia la tabla de estados y vuelve a crear el estado inicial. Los contadores se conservan.
+     */
+    public synchronized void flush() {
+        states.clear();
+        bytes.set(0);
+        flushes.incrementAndGet();
+        start = createStart();
+    }
+
+    /**
+     * Vacia la tabla si un estado nuevo no cabe. Se vuelve a revisar bajo el candado para que varios hilos que llegan
+     * al limite a la vez no la vacien varias veces.
+     */
+    private synchronized void flushIfFull(long estimado) {
+        if (bytes.get() + estimado > maxBytes) flush();
+    }
+
+    /**
+     * Crea el estado inicial y lo guarda en la tabla sin revisar el limite
+     */
+    private State createStart() {
+        BitSet conjunto = automata.startSet();
+        State inicial = new State(conjunto.stream().toArray(), automata.acceptingState(conjunto), automata.getNumAtoms());
+        states.put(inicial, inicial);
+        bytes.addAndGet(inicial.estimatedBytes());
+        return inicial;
+    }
+
+    /**
+     * Cantidad de estados en la tabla
+     */
+    public int size() {
+        return states.size();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Cantidad de transiciones que ya estaban construidas
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Cantidad de transiciones que se tuvieron que construir
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Proporcion de transiciones que ya estaban construidas
+     * @return valor entre 0 y 1, 0 si no se ha simulado nada
+     */
+    public double getHitRate() {
+        long aciertos = getHits(), total = aciertos + getMisses();
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    /**
+     * Cantidad de veces que se vacio la tabla por pasarse de maxBytes
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public CompiledAutomaton getAutomata() {
+        return automata;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyDFA: " + size() + " estados, " + getBytes() + "/" + maxBytes + " bytes, " + getHits() + " hits, "
+                + getMisses() + " misses, " + getFlushes() + " flushes";
+    }
+
+    /**
+     * Estado del DFA: un conjunto de estados del automata, su estado de aceptacion de mayor prioridad y sus
+     * transiciones por atomo ya construidas. Dos estados con el mismo conjunto son iguales.
+     */
+    public static final class State {
+        private final int[] nfaStates;  // Estados del automata, ordenados
+        private final int accepting;  // Estado de aceptacion de mayor prioridad del conjunto o -1
+        private final AtomicReferenceArray<State> next;  // Estado siguiente por atomo, null si no se ha construido
+        private final int hash;
+
+        private State(int[] nfaStates, int accepting, int numAtoms) {
+            this.nfaStates = nfaStates;
+            this.accepting = accepting;
+            this.next = new AtomicReferenceArray<State>(numAtoms);
+            this.hash = Arrays.hashCode(nfaStates);
+        }
+
+        /**
+         * Indica si el estado es el conjunto vacio, desde el que no se reconoce nada mas
+         */
+        public boolean isDead() {
+            return nfaStates.length == 0;
+        }
+
+        /**
+         * Estado de aceptacion de mayor prioridad (menor precedencia) del conjunto
+         * @return estado del automata o -1 si el conjunto no tiene ninguno
+         */
+        public int getAcceptingState() {
+            return accepting;
+        }
+
+        public boolean isAccept() {
+            return accepting >= 0;
+        }
+
+        private long estimatedBytes() {
+            return 2 * AutomatonStats.HEADER + 3 * AutomatonStats.REFERENCE + 8 + 2 * AutomatonStats.ARRAY_HEADER
+                    + 4L * nfaStates.length + (long) AutomatonStats.REFERENCE * next.length() + AutomatonStats.HASH_MAP_NODE;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State && Arrays.equals(nfaStates, ((State) o).nfaStates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package GeneradorLexers;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * La presente clase tiene como objetivo reducir un NFA (por ejemplo, el de RegExToNFA o el NFA union de tokens del
+ * Lexer) sin cambiar lo que reconoce. Pasos:
+ * - Elimina las transiciones epsilon propagando hacia adelante las e-closures: un estado recibe las transiciones con
+ *   simbolo de todos los estados de su e-closure y acepta si alguno de ellos acepta, con el token de mayor prioridad.
+ *   Solo se recorren los estados alcanzables desde el inicial.
+ * - Quita los estados desde los que no se llega a ningun estado de aceptacion.
+ * - Une los estados con la misma firma: el mismo token (o ninguno) y las mismas transiciones (simbolo, grupo
+ *   destino). Los grupos se refinan hasta que dejan de cambiar, asi tambien se unen las cadenas de estados iguales.
+ * El resultado no tiene transiciones epsilon, por lo que Simulator y NFAToDFA no calculan e-closures sobre el, y los
+ * estados de aceptacion conservan su tokenType y precedence.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public class NFAReducer implements Serializable {
+    /**
+     * Atributos
+     */
+    private AutomatonStats inputStats, outputStats;  // Estadisticas del NFA y del NFA reducido de la ultima reduccion
+
+    /**
+     * Reduce un NFA no compacto
+     * @param nfa automata a reducir, no se modifica
+     * @return automata reducido, sin transiciones epsilon
+     */
+    public DirectedGraph reduce(DirectedGraph nfa){
+        return reduce(nfa.freeze()).thaw();
+    }
+
+    /**
+     * Reduce un NFA compacto
+     * @param nfa automata a reducir
+     * @return automata reducido, sin transiciones epsilon
+     */
+    public FrozenAutomaton reduce(FrozenAutomaton nfa){
+        inputStats = nfa.stats();
+        int n = nfa.getNumStates();
+
+        // Transiciones sin epsilon de los estados alcanzables, en formato (origen, simbolo, destino)
+        int[] from = new int[16], symbol = new int[16], to = new int[16];
+        int numEdges = 0;
+        int[] aceptacion = new int[n];  // Estado de aceptacion de mayor prioridad en la e-closure, o -1
+        BitSet alcanzables = new BitSet(n);
+        int[] pendientes = new int[n];
+        int numPendientes = 0;
+        alcanzables.set(nfa.getStartState());
+        pendientes[numPendientes++] = nfa.getStartState();
+        while (numPendientes > 0) {
+            int s = pendientes[--numPendientes];
+            BitSet cerradura = new BitSet(n);
+            cerradura.set(s);
+            nfa.eClosure(cerradura);
+
+            aceptacion[s] = -1;
+            for (int t = cerradura.nextSetBit(0); t >= 0; t = cerradura.nextSetBit(t + 1)) {
+                if (nfa.isAccept(t) && (aceptacion[s] < 0 || nfa.getPrecedence(t) < nfa.getPrecedence(aceptacion[s]))) {
+                    aceptacion[s] = t;
+                }
+                for (int e = nfa.getRowStart(t); e < nfa.getRowEnd(t); e++) {
+                    int destino = nfa.getTarget(e);
+                    if (numEdges == from.length) {
+                        from = Arrays.copyOf(from, numEdges * 2);
+                        symbol = Arrays.copyOf(symbol, numEdges * 2);
+                        to = Arrays.copyOf(to, numEdges * 2);
+                    }
+                    from[numEdges] = s;
+                    symbol[numEdges] = nfa.getLabel(e);
+                    to[numEdges++] = destino;
+                    if (!alcanzables.get(destino)) {
+                        alcanzables.set(destino);
+                        pendientes[numPendientes++] = destino;
+                    }
+                }
+            }
+        }
+
+        // Estados utiles: alcanzables y desde los que se llega a una aceptacion (recorriendo las transiciones al reves)
+        int[] entradasInicio = new int[n + 1];
+        for (int e = 0; e < numEdges; e++) entradasInicio[to[e] + 1]++;
+        for (int s = 0; s < n; s++) entradasInicio[s + 1] += entradasInicio[s];
+        int[] entradas = new int[numEdges];
+        int[] siguiente = Arrays.copyOf(entradasInicio, n);
+        for (int e = 0; e < numEdges; e++) entradas[siguiente[to[e]]++] = from[e];
+
+        BitSet utiles = new BitSet(n);
+        numPendientes = 0;
+        for (int s = alcanzables.nextSetBit(0); s >= 0; s = alcanzables.nextSetBit(s + 1)) {
+            if (aceptacion[s] >= 0) {
+                utiles.set(s);
+                pendientes[numPendientes++] = s;
+            }
+        }
+        while (numPendientes > 0) {
+            int s = pendientes[--numPendientes];
+            for (int i = entradasInicio[s]; i < entradasInicio[s + 1]; i++) {
+                if (!utiles.get(entradas[i])) {
+                    utiles.set(entradas[i]);
+                    pendientes[numPendientes++] = entradas[i];
+                }
+            }
+        }
+        utiles.set(nfa.getStartState());  // El inicial se conserva aunque no reconozca nada
+
+        // Transiciones de cada estado util hacia estados utiles, agrupadas por origen
+        int[] filaInicio = new int[n + 1];
+        for (int e = 0; e < numEdges; e++) {
+            if (utiles.get(from[e]) && utiles.get(to[e])) filaInicio[from[e] + 1]++;
+        }
+        for (int s = 0; s < n; s++) filaInicio[s + 1] += filaInicio[s];
+        int[] filaSimbolo = new int[filaInicio[n]], filaDestino = new int[filaInicio[n]];
+        siguiente = Arrays.copyOf(filaInicio, n);
+        for (int e = 0; e < numEdges; e++) {
+            if (!utiles.get(from[e]) || !utiles.get(to[e])) continue;
+            int pos = siguiente[from[e]]++;
+            filaSimbolo[pos] = symbol[e];
+            filaDestino[pos] = to[e];
+        }
+
+        // Grupos iniciales: por token aceptado (los estados que no aceptan van juntos)
+        int[] grupo = new int[n];
+        HashMap<Firma, Integer> grupos = new HashMap<Firma, Integer>();
+        for (int s = utiles.nextSetBit(0); s >= 0; s = utiles.nextSetBit(s + 1)) {
+            int a = aceptacion[s];
+            Firma llave = a < 0 ? new Firma(new int[0], null)
+                    : new Firma(new int[]{nfa.getPrecedence(a)}, nfa.getTokenType(a) == null ? "" : nfa.getTokenType(a));
+            grupo[s] = numeroDeGrupo(grupos, llave);
+        }
+
+        // Refinar los grupos por sus transiciones hasta que la cantidad de grupos no cambie
+        int numGrupos = grupos.size();
+        while (true) {
+            int[] nuevoGrupo = new int[n];
+            grupos = new HashMap<Firma, Integer>();
+            for (int s = utiles.nextSetBit(0); s >= 0; s = utiles.nextSetBit(s + 1)) {
+                nuevoGrupo[s] = numeroDeGrupo(grupos, new Firma(firma(s, grupo[s], filaInicio, filaSimbolo, filaDestino, grupo), null));
+            }
+            grupo = nuevoGrupo;
+            if (grupos.size() == numGrupos) break;
+            numGrupos = grupos.size();
+        }
+
+        // Un estado representante por grupo, con sus transiciones sin repetir
+        int[] representante = new int[numGrupos];
+        Arrays.fill(representante, -1);
+        for (int s = utiles.nextSetBit(0); s >= 0; s = utiles.nextSetBit(s + 1)) {
+            if (representante[grupo[s]] < 0) representante[grupo[s]] = s;
+        }
+
+        numEdges = 0;
+        BitSet aceptados = new BitSet(numGrupos);
+        int[] precedence = new int[numGrupos];
+        String[] tokenTypes = new String[numGrupos];
+        int[] stateIds = new int[numGrupos];
+        for (int g = 0; g < numGrupos; g++) {
+            int s = representante[g];
+            int[] transiciones = firma(s, g, filaInicio, filaSimbolo, filaDestino, grupo);
+            for (int i = 1; i < transiciones.length; i += 2) {
+                if (numEdges == from.length) {
+                    from = Arrays.copyOf(from, numEdges * 2);
+                    symbol = Arrays.copyOf(symbol, numEdges * 2);
+                    to = Arrays.copyOf(to, numEdges * 2);
+                }
+                from[numEdges] = g;
+                symbol[numEdges] = transiciones[i];
+                to[numEdges++] = transiciones[i + 1];
+            }
+
+            stateIds[g] = nfa.getStateId(s);
+            if (aceptacion[s] >= 0) {
+                aceptados.set(g);
+                precedence[g] = nfa.getPrecedence(aceptacion[s]);
+                tokenTypes[g] = nfa.getTokenType(aceptacion[s]);
+            }
+        }
+
+        FrozenAutomaton reducido = FrozenAutomaton.build(numGrupos, from, to, symbol, numEdges, (BitSet) nfa.getAlphabet().clone(),
+                grupo[nfa.getStartState()], aceptados, precedence, tokenTypes, stateIds);
+        outputStats = reducido.stats();
+        return reducido;
+    }
+
+    /**
+     * Calcula la firma de un estado: su grupo actual seguido de los pares (simbolo, grupo destino) ordenados y sin
+     * repetir
+     */
+    private static int[] firma(int s, int grupoActual, int[] filaInicio, int[] filaSimbolo, int[] filaDestino, int[] grupo) {
+        int cantidad = filaInicio[s + 1] - filaInicio[s];
+        long[] pares = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            int e = filaInicio[s] + i;
+            pares[i] = ((long) filaSimbolo[e] << 32) | grupo[filaDestino[e]];
+        }
+        Arrays.sort(pares);
+
+        int[] resultado = new int[1 + 2 * cantidad];
+        resultado[0] = grupoActual;
+        int k = 1;
+        for (int i = 0; i < cantidad; i++) {
+            if (i > 0 && pares[i] == pares[i - 1]) continue;
+            resultado[k++] = (int) (pares[i] >>> 32);
+            resultado[k++] = (int) pares[i];
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    /**
+     * Devuelve el numero de grupo de una firma, creando uno nuevo si no existe
+     */
+    private static int numeroDeGrupo(HashMap<Firma, Integer> grupos, Firma firma) {
+        Integer numero = grupos.get(firma);
+        if (numero == null) {
+            numero = grupos.size();
+            grupos.put(firma, numero);
+        }
+        return numero;
+    }
+
+    /**
+     * Estadisticas del NFA de entrada de la ultima reduccion
+     */
+    public AutomatonStats getInputStats() {
+        return inputStats;
+    }
+
+    /**
+     * Estadisticas del NFA reducido de la ultima reduccion
+     */
+    public AutomatonStats getOutputStats() {
+        return outputStats;
+    }
+
+    /**
+     * Firma de un estado como llave de un HashMap: enteros y, para los estados de aceptacion, el tipo de token
+     */
+    private static final class Firma {
+        private final int[] valores;
+        private final String tokenType;
+
+        private Firma(int[] valores, String tokenType) {
+            this.valores = valores;
+            this.tokenType = tokenType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Firma)) return false;
+            Firma otra = (Firma) o;
+            return Arrays.equals(valores, otra.valores)
+                    && (tokenType == null ? otra.tokenType == null : tokenType.equals(otra.tokenType));
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(valores);
+        }
+    }
+}
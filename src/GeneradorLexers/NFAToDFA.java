@@ -1,9 +1,18 @@
 package GeneradorLexers;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * La presente clase tiene como objetivo crear un DFA a partir de un NFA
@@ -16,8 +25,30 @@ public class NFAToDFA  implements Serializable {
      * Atributos
      */
     private HashMap<DirectedGraph.NodeClass, HashSet<DirectedGraph.NodeClass>> eClosureStates = new HashMap<DirectedGraph.NodeClass, HashSet<DirectedGraph.NodeClass>>();
-    private LinkedList<Dstate<DirectedGraph.NodeClass>> dStates = new LinkedList<Dstate<DirectedGraph.NodeClass>>();  // Futuros estados del DFA
-    private LinkedList<Dtransition> dTransitions = new LinkedList<Dtransition>();  // Futuros transiciones del DFA
+    private ArrayList<BitSet> dStates = new ArrayList<BitSet>();  // Futuros estados del DFA: conjuntos de indices de nodos del NFA
+    private HashMap<Conjunto, Integer> dStatesIndex = new HashMap<Conjunto, Integer>();  // Indice de cada conjunto en dStates
+    private ArrayDeque<Integer> dStatesNoMarcados = new ArrayDeque<Integer>();  // Estados del DFA por procesar, en orden
+    private int[] dFrom = new int[16], dTo = new int[16], dSymbol = new int[16];  // Futuras transiciones del DFA
+    private int numDTransitions = 0;
+    private int indiceFinalNfa = -1;  // Indice del nodo final del NFA
+    private BitSet dAlphabet = new BitSet();  // Alfabeto del DFA: un simbolo por atomo del alfabeto del NFA
+    private AutomatonStats inputStats, outputStats;  // Estadisticas del NFA y del DFA de la ultima conversion
+    private transient ForkJoinPool pool;  // Pool de la construccion por subconjuntos en paralelo, null si es secuencial
+
+    /**
+     * Constructor, la construccion por subconjuntos es secuencial
+     */
+    public NFAToDFA(){
+    }
+
+    /**
+     * Constructor con construccion por subconjuntos en paralelo para convert(DirectedGraph). El DFA resultante es el
+     * mismo que el de la construccion secuencial, con los mismos numeros de estado.
+     * @param pool pool donde se expanden los Destados, por ejemplo ForkJoinPool.commonPool()
+     */
+    public NFAToDFA(ForkJoinPool pool){
+        this.pool = pool;
+    }
 
     /**
      * Funcion que se encarga de guiar el algoritmo de conversion de nfa-dfa
@@ -25,9 +56,103 @@ public class NFAToDFA  implements Serializable {
      * @return un dfa
      */
     public DirectedGraph convert(DirectedGraph nfa){
+        inputStats = nfa.stats();
         generateSimpleEClosure(nfa);  // Obtener los estados que se pueden alcanzar por epsilon de un estado
         generateTransitionTable(nfa);  // Generar la tabla de transiciones para el nuevo dfa
-        return generateDFA(nfa);
+        DirectedGraph dfa = generateDFA(nfa);
+        outputStats = dfa.stats();
+        return dfa;
+    }
+
+    /**
+     * Convierte un NFA compacto a un DFA compacto por subconjuntos. Los conjuntos de estados son BitSets y se buscan en
+     * un HashMap, por lo que no se recorre la lista de Destados por cada conjunto nuevo. El DFA resultante es parcial:
+     * no se crea el estado del conjunto vacio. Sus transiciones se etiquetan con los atomos del alfabeto del NFA, que
+     * son disjuntos aunque los conjuntos de caracteres del NFA se traslapen. Si el NFA no tiene transiciones epsilon
+     * (ver RegExToDFA.createGlushkovNFA) el e-closure devuelve cada conjunto sin recorrerlo.
+     * @param nfa automata compacto a convertir
+     * @return dfa compacto equivalente
+     */
+    public FrozenAutomaton convert(FrozenAutomaton nfa){
+        inputStats = nfa.stats();
+        CharClassifier atomos = nfa.getCharClassifier();
+        BitSet alfabeto = new BitSet();
+        HashMap<BitSet, Integer> dEstados = new HashMap<BitSet, Integer>();
+        ArrayDeque<BitSet> noMarcados = new ArrayDeque<BitSet>();
+        LinkedList<BitSet> conjuntos = new LinkedList<BitSet>();
+
+        // Transiciones del dfa
+        int[] from = new int[16], to = new int[16], symbol = new int[16];
+        int numEdges = 0;
+
+        // Crear Destado inicial con el e-closure del estado inicial
+        BitSet inicial = new BitSet(nfa.getNumStates());
+        inicial.set(nfa.getStartState());
+        nfa.eClosure(inicial);
+        dEstados.put(inicial, 0);
+        conjuntos.add(inicial);
+        noMarcados.add(inicial);
+
+        // Crear resto de Destados
+        while (!noMarcados.isEmpty()){
+            BitSet unmarkedState = noMarcados.poll();
+            int origen = dEstados.get(unmarkedState);
+
+            // Procesar cada atomo del alfabeto: se mueve con todos los simbolos que lo contienen
+            for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+                int[] miembros = atomos.getMembers(atomo);
+                BitSet alcanzados = nfa.move(unmarkedState, miembros[0]);
+                for (int m = 1; m < miembros.length; m++) alcanzados.or(nfa.move(unmarkedState, miembros[m]));
+                if (alcanzados.isEmpty()) continue;
+                int input = atomos.getAtomSymbol(atomo);
+                alfabeto.set(input);
+                nfa.eClosure(alcanzados);
+
+                Integer destino = dEstados.get(alcanzados);
+                if (destino == null){
+                    destino = dEstados.size();
+                    dEstados.put(alcanzados, destino);
+                    conjuntos.add(alcanzados);
+                    noMarcados.add(alcanzados);
+                }
+
+                // Guardar transicion
+                if (numEdges == from.length){
+                    from = Arrays.copyOf(from, numEdges * 2);
+                    to = Arrays.copyOf(to, numEdges * 2);
+                    symbol = Arrays.copyOf(symbol, numEdges * 2);
+                }
+                from[numEdges] = origen;
+                to[numEdges] = destino;
+                symbol[numEdges] = input;
+                numEdges++;
+            }
+        }
+
+        // Estados de aceptacion: conservan el token de mayor prioridad (menor precedencia)
+        int n = conjuntos.size();
+        BitSet aceptacion = new BitSet(n);
+        int[] precedence = new int[n];
+        String[] tokenTypes = new String[n];
+        int[] stateIds = new int[n];
+        int contador = 0;
+        for (BitSet conjunto: conjuntos){
+            stateIds[contador] = contador;
+            int mejor = -1;
+            for (int s = conjunto.nextSetBit(0); s >= 0; s = conjunto.nextSetBit(s + 1)){
+                if (nfa.isAccept(s) && (mejor < 0 || nfa.getPrecedence(s) < nfa.getPrecedence(mejor))) mejor = s;
+            }
+            if (mejor >= 0){
+                aceptacion.set(contador);
+                precedence[contador] = nfa.getPrecedence(mejor);
+                tokenTypes[contador] = nfa.getTokenType(mejor);
+            }
+            contador++;
+        }
+
+        FrozenAutomaton dfa = FrozenAutomaton.build(n, from, to, symbol, numEdges, alfabeto, 0, aceptacion, precedence, tokenTypes, stateIds);
+        outputStats = dfa.stats();
+        return dfa;
     }
 
     /**
@@ -51,22 +176,20 @@ public class NFAToDFA  implements Serializable {
     }
 
     /**
-     * Devuelve el e-closure de un estado
+     * Devuelve el e-closure de un estado. Recorre las transiciones epsilon con una pila explicita, por lo que una
+     * cadena larga de epsilons no depende del tamaño de la pila del hilo.
      * @param nodo el estado al que se le obtendra el e-closure
      * @return retorna un conjunto con los estados a los que se puede llegar
      */
     private HashSet<DirectedGraph.NodeClass> stateEClosure(DirectedGraph.NodeClass nodo, HashSet<DirectedGraph.NodeClass> estadosTemp){
-        for (DirectedGraph.edgeContents transicion: nodo.edges) {
-            // Si una transicion es igual a epsilon, guardar los estados a los que me lleva
-            if (transicion.getTransition().equals("!")){
-                DirectedGraph.NodeClass nodoDestino = transicion.getFinishingNode();
-
-                // Intentar agregar nodo a conjunto de nodos alcanzados
-                boolean fueAgregado = estadosTemp.add(nodoDestino);
-
-                // Si se agrega, entonces visitar los estados a los que se puede llegar con dicho nodo
-                if (fueAgregado){
-                    estadosTemp.addAll(stateEClosure(nodoDestino, estadosTemp));
+        ArrayDeque<DirectedGraph.NodeClass> pendientes = new ArrayDeque<DirectedGraph.NodeClass>();
+        pendientes.push(nodo);
+        while (!pendientes.isEmpty()) {
+            // Recorrer solo los destinos epsilon, sin filtrar las transiciones con simbolo
+            for (DirectedGraph.NodeClass nodoDestino: pendientes.pop().getEpsilonTargets()) {
+                // Si se agrega, entonces visitar despues los estados a los que se puede llegar con dicho nodo
+                if (estadosTemp.add(nodoDestino)){
+                    pendientes.push(nodoDestino);
                 }
             }
         }
@@ -97,7 +220,7 @@ public class NFAToDFA  implements Serializable {
      * @param symbol es la entrada que desencadena el movimiento
      * @return devuelve un conjunto de estados alcanzables
      */
-    public HashSet<DirectedGraph.NodeClass> moveT(HashSet<DirectedGraph.NodeClass> set, String symbol){
+    public HashSet<DirectedGraph.NodeClass> moveT(HashSet<DirectedGraph.NodeClass> set, int symbol){
         // Variable para almacenar estados
         HashSet<DirectedGraph.NodeClass> resultado = new HashSet<DirectedGraph.NodeClass>();
 
@@ -108,6 +231,23 @@ public class NFAToDFA  implements Serializable {
         return resultado;
     }
 
+    /**
+     * Obtiene el conjunto de estados que se alcanzan desde un conjunto con cualquiera de varios simbolos, por ejemplo
+     * los simbolos cuyo conjunto de caracteres contiene al caracter leido
+     * @param set es el conjunto de estados desde donde se analiza
+     * @param symbols simbolos que desencadenan el movimiento
+     * @return devuelve un conjunto de estados alcanzables
+     */
+    public HashSet<DirectedGraph.NodeClass> moveT(HashSet<DirectedGraph.NodeClass> set, int[] symbols){
+        if (symbols.length == 1) return moveT(set, symbols[0]);
+
+        HashSet<DirectedGraph.NodeClass> resultado = new HashSet<DirectedGraph.NodeClass>();
+        for (int symbol: symbols) {
+            resultado.addAll(moveT(set, symbol));
+        }
+        return resultado;
+    }
+
     /**
      * Este metodo tiene como objetivo obtener el conjunto de estados que se alcanzan desde un solo estado considera
      * las transiciones epsilon
@@ -115,189 +255,241 @@ public class NFAToDFA  implements Serializable {
      * @param symbol es la entrada que provoca el movimiento
      * @return devuelve un conjunto de estados alcanzables
      */
-    public HashSet<DirectedGraph.NodeClass> moveS(DirectedGraph.NodeClass nodo, String symbol){
+    public HashSet<DirectedGraph.NodeClass> moveS(DirectedGraph.NodeClass nodo, int symbol){
         // Variable para almacenar estados
         HashSet<DirectedGraph.NodeClass> resultado = new HashSet<DirectedGraph.NodeClass>();
 
-        // Analizar cada una de las transiciones de los estados
-        for (DirectedGraph.edgeContents transicion: nodo.edges) {
-            // Si una transicion es igual a el simbolo, guardar los estados a los que me lleva
-            if (transicion.getTransition().equals(symbol)){
-                DirectedGraph.NodeClass nodoDestino = transicion.getFinishingNode();
-
-                // Agregar todos los nodos alcanzados por epsilon del nodo alcanzado por a
-                resultado.addAll(eClosureStates.get(nodoDestino));
-
-            }
+        // Analizar solo las transiciones con el simbolo, usando el indice del nodo
+        for (DirectedGraph.NodeClass nodoDestino: nodo.getTargets(symbol)) {
+            // Agregar todos los nodos alcanzados por epsilon del nodo alcanzado por a
+            resultado.addAll(eClosureStates.get(nodoDestino));
         }
         return resultado;
     }
 
-    public DirectedGraph.NodeClass move(DirectedGraph.NodeClass nodo, String symbol){
-        // Analizar cada una de las transiciones del estado
-        for (DirectedGraph.edgeContents transicion: nodo.edges) {
-            // Si una transicion es igual a el simbolo, retornar estado
-            if (transicion.getTransition().equals(symbol)){
-                return transicion.getFinishingNode();
-            }
-        }
-
-        return null;
+    public DirectedGraph.NodeClass move(DirectedGraph.NodeClass nodo, int symbol){
+        // Buscar en el indice del estado la primera transicion con el simbolo
+        return nodo.getTarget(symbol);
     }
 
     /**
      * Metodo que tiene como objetivo obtener todos los estados a los que se puede llegar a partir de
-     *  un estado y un input.
+     *  un estado y un input. Los nodos del NFA se numeran y cada Destado es un BitSet de esos indices; los conjuntos
+     *  se buscan en un HashMap y los estados sin marcar se procesan en una cola, asi cada Destado nuevo cuesta O(1)
+     *  esperado en lugar de recorrer la lista de Destados.
      * @param nfa automata que se analizara para obtener resultado
      */
     private void generateTransitionTable(DirectedGraph nfa){
+        // Numerar los nodos del nfa
+        ArrayList<DirectedGraph.NodeClass> nodos = new ArrayList<DirectedGraph.NodeClass>(nfa.getAllNodes());
+        HashMap<DirectedGraph.NodeClass, Integer> indices = new HashMap<DirectedGraph.NodeClass, Integer>(nodos.size() * 2);
+        for (int i = 0; i < nodos.size(); i++) {
+            indices.put(nodos.get(i), i);
+        }
+
+        // e-closure de cada nodo como BitSet
+        BitSet[] closures = new BitSet[nodos.size()];
+        for (int i = 0; i < nodos.size(); i++) {
+            closures[i] = new BitSet(nodos.size());
+            for (DirectedGraph.NodeClass nodo: eClosureStates.get(nodos.get(i))) {
+                closures[i].set(indices.get(nodo));
+            }
+        }
+
         // Estados iniciales de nfa (solo es uno)
-        HashSet<DirectedGraph.NodeClass> nodosInicialesNfa = nfa.getInicialNode();
         DirectedGraph.NodeClass nodoInicialNfa = null;
-        for (DirectedGraph.NodeClass nodo: nodosInicialesNfa) {
+        for (DirectedGraph.NodeClass nodo: nfa.getInicialNode()) {
             nodoInicialNfa = nodo;
         }
 
-
         // Estado final de nfa
-        HashSet<DirectedGraph.NodeClass> nodosFinalesNfa = nfa.getFinalNode();
-        DirectedGraph.NodeClass nodoFinalNfa = null;
-        for (DirectedGraph.NodeClass nodo: nodosFinalesNfa) {
-            nodoFinalNfa = nodo;
+        for (DirectedGraph.NodeClass nodo: nfa.getFinalNode()) {
+            indiceFinalNfa = indices.get(nodo);
         }
 
-        // Obtener conjuntos alcanzados por nodoInicialNfa con epsilon
-        HashSet<DirectedGraph.NodeClass> nodosIniciales = eClosureStates.get(nodoInicialNfa);
-
-        // Ver si contiene el estado de aceptacion el conjunto inicial
-        boolean isFinal = nodosIniciales.contains(nodoFinalNfa);
+        // Crear Destado inicial con conjuntos alcanzados por estado inicial con epsilon
+        getDstate((BitSet) closures[indices.get(nodoInicialNfa)].clone());
 
-        // Crear Destado inicial con conjuntos alcanzados por estado inicial
-        Dstate<DirectedGraph.NodeClass> dEstadoInicial = new Dstate<DirectedGraph.NodeClass>(nodosIniciales, true, isFinal);
-        Dstate<DirectedGraph.NodeClass> estadoTemporalAgregado;
-
-        // Agregar Destado a conjunto de Destados
-        dStates.add(dEstadoInicial);
+        // Obtener los atomos del alfabeto del nfa, cada uno sera una entrada del dfa
+        CharClassifier atomos = nfa.getCharClassifier();
+        for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+            dAlphabet.set(atomos.getAtomSymbol(atomo));
+        }
 
-        // Obtener alphabeto de nfa
-        HashSet<String> alphabeto = nfa.getAlphabet();
+        // Transiciones de cada nodo por atomo, con el indice del destino, para no buscarlas por cada Destado
+        int[][] atomosPorNodo = new int[nodos.size()][];
+        int[][] destinosPorNodo = new int[nodos.size()][];
+        for (int i = 0; i < nodos.size(); i++){
+            int[] atomosNodo = new int[4], destinosNodo = new int[4];
+            int numTransiciones = 0;
+            for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+                for (int simbolo: atomos.getMembers(atomo)){
+                    for (DirectedGraph.NodeClass nodoDestino: nodos.get(i).getTargets(simbolo)){
+                        if (numTransiciones == atomosNodo.length){
+                            atomosNodo = Arrays.copyOf(atomosNodo, numTransiciones * 2);
+                            destinosNodo = Arrays.copyOf(destinosNodo, numTransiciones * 2);
+                        }
+                        atomosNodo[numTransiciones] = atomo;
+                        destinosNodo[numTransiciones++] = indices.get(nodoDestino);
+                    }
+                }
+            }
+            atomosPorNodo[i] = Arrays.copyOf(atomosNodo, numTransiciones);
+            destinosPorNodo[i] = Arrays.copyOf(destinosNodo, numTransiciones);
+        }
 
-        // Crearn variable de estado no marcado
-        Dstate<DirectedGraph.NodeClass> unmarkedState = dEstadoInicial;
+        // Explorar la frontera en paralelo si se configuro un pool
+        if (pool != null){
+            generateTransitionTableParallel(atomos, closures, atomosPorNodo, destinosPorNodo);
+            return;
+        }
 
         // Crear resto de Destados
-        while (unmarkedState != null){
-            // Marcar estado inicial ERROR
-            unmarkedState.setMarked(true);
-
-            // Procesar cada entrada del alfabeto y su resultado
-            for (String input: alphabeto){
-                // Obtener el conjunto de estados que se alcanzan con cierta entrada
-                HashSet<DirectedGraph.NodeClass> conjuntoEstadosAlcanzados = moveT(unmarkedState.getConjuntoEstados(), input);
-
-                // Ver si contiene el estado de aceptacion el conjunto
-                isFinal = conjuntoEstadosAlcanzados.contains(nodoFinalNfa);
-
-                // Crear GeneradorLexers.Dstate que se podria agregar
-                estadoTemporalAgregado = new Dstate<DirectedGraph.NodeClass>(conjuntoEstadosAlcanzados, false, isFinal);
-
-                // Verificar que estadoTemporalAgregado no exista en Destados
-                Dstate<DirectedGraph.NodeClass> estadoTemporalEsUnico = getUniqueDstate(estadoTemporalAgregado);
-
-                // Agregar estadoTemporalAgregado si no existe
-                if (estadoTemporalEsUnico == null){
-                    dStates.add(estadoTemporalAgregado);
-
-                    // Crear Dtransicion para el estado creado
-                    addDtransition(unmarkedState, estadoTemporalAgregado, input);
-                }
-
-                // Agregar transicion a estado existente
-                else {
-                    addDtransition(unmarkedState, estadoTemporalEsUnico, input);
-                }
+        while (!dStatesNoMarcados.isEmpty()){
+            // Marcar el siguiente estado
+            int unmarkedState = dStatesNoMarcados.poll();
+            BitSet[] alcanzadosPorAtomo = moveByAtom(dStates.get(unmarkedState), atomos.getNumAtoms(), closures, atomosPorNodo, destinosPorNodo);
+
+            // Procesar cada atomo del alfabeto y su resultado (el conjunto vacio tambien es un Destado)
+            for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+                // Crear Dtransicion hacia el estado, agregandolo si no existe
+                addDtransition(unmarkedState, getDstate(alcanzadosPorAtomo[atomo]), atomos.getAtomSymbol(atomo));
             }
-
-            // Actualizar unmarkedState
-            unmarkedState = existUnmarkedDstate();
         }
     }
 
     /**
-     * Indica si existen estados sin marcar en el conjunto de estados del dfa
-     * @return verdadero: si existen estados sin marcar; falso, si ya estan marcados todos los estados
+     * Obtiene en una pasada los conjuntos que se alcanzan desde un Destado con cada atomo, ya cerrados por epsilon
+     * @return un conjunto por atomo, vacio si el atomo no lleva a ningun estado
      */
-    private Dstate<DirectedGraph.NodeClass> existUnmarkedDstate(){
-        for (Dstate<DirectedGraph.NodeClass> dEstado: dStates){
-            if (!dEstado.isMarked()){
-                return dEstado;
+    private static BitSet[] moveByAtom(BitSet conjuntoEstados, int numAtomos, BitSet[] closures, int[][] atomosPorNodo, int[][] destinosPorNodo){
+        BitSet[] alcanzadosPorAtomo = new BitSet[numAtomos];
+        for (int atomo = 0; atomo < numAtomos; atomo++){
+            alcanzadosPorAtomo[atomo] = new BitSet();
+        }
+        for (int s = conjuntoEstados.nextSetBit(0); s >= 0; s = conjuntoEstados.nextSetBit(s + 1)){
+            for (int k = 0; k < atomosPorNodo[s].length; k++){
+                alcanzadosPorAtomo[atomosPorNodo[s][k]].or(closures[destinosPorNodo[s][k]]);
             }
         }
-        return null;
+        return alcanzadosPorAtomo;
     }
 
     /**
-     * Se utiliza para crear una nueva dTransicion y anadirla al Destado
-     * @param finishingState Estado al que se llega con la transicion
-     * @param startingState Estado desde el que se inicia
-     * @param transition Transicion que provoca el cambio
+     * Construccion por subconjuntos en paralelo. Cada frontera (los Destados creados en la ronda anterior) se reparte
+     * entre los hilos del pool; cada hilo calcula los conjuntos alcanzados por todos los atomos y los interna en un
+     * ConcurrentHashMap con un numero temporal. Al terminar, los Destados se renumeran recorriendo las transiciones a
+     * lo ancho desde el inicial en orden de atomo, que es el orden en que los numera la construccion secuencial, por lo
+     * que el DFA resultante es el mismo sin importar cuantos hilos se usen.
      */
-    private void addDtransition(Dstate<DirectedGraph.NodeClass> startingState, Dstate<DirectedGraph.NodeClass> finishingState, String transition){
-        Dtransition nuevaTransicion = new Dtransition(finishingState, startingState, transition);
-        dTransitions.add(nuevaTransicion);
-        startingState.addTransitions(nuevaTransicion);
+    private void generateTransitionTableParallel(CharClassifier atomos, BitSet[] closures, int[][] atomosPorNodo, int[][] destinosPorNodo){
+        SubconjuntosParalelos construccion = new SubconjuntosParalelos(atomos.getNumAtoms(), closures, atomosPorNodo, destinosPorNodo);
+        construccion.intern(dStates.get(0), null);  // Destado inicial, numero temporal 0
+        dStatesNoMarcados.clear();
+
+        // Expandir por rondas hasta que no aparezcan conjuntos nuevos
+        int[] frontera = {0};
+        while (frontera.length > 0){
+            ConcurrentLinkedQueue<Integer> nuevos = new ConcurrentLinkedQueue<Integer>();
+            pool.invoke(construccion.new Expansion(frontera, 0, frontera.length, nuevos));
+            frontera = new int[nuevos.size()];
+            int k = 0;
+            for (int nuevo: nuevos) frontera[k++] = nuevo;
+        }
+
+        // Renumerar a lo ancho desde el inicial y crear las Dtransiciones
+        int[] indiceFinal = new int[construccion.getNumIds()];
+        Arrays.fill(indiceFinal, -1);
+        dStates.clear();
+        dStatesIndex.clear();
+        ArrayDeque<Integer> pendientes = new ArrayDeque<Integer>();
+        indiceFinal[0] = 0;
+        dStates.add(construccion.getConjunto(0));
+        pendientes.add(0);
+        while (!pendientes.isEmpty()){
+            int temporal = pendientes.poll();
+            int[] sucesores = construccion.getSucesores(temporal);
+            for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+                int destino = sucesores[atomo];
+                if (indiceFinal[destino] < 0){
+                    indiceFinal[destino] = dStates.size();
+                    dStates.add(construccion.getConjunto(destino));
+                    pendientes.add(destino);
+                }
+                addDtransition(indiceFinal[temporal], indiceFinal[destino], atomos.getAtomSymbol(atomo));
+            }
+        }
     }
 
     /**
-     * Verifica si un estado ya exite en Dstates, si ya existe, devuelve dicho estado
-     * @param dstate estado a analizar
-     * @return null, si no existe; dstate si existe
+     * Busca un conjunto de estados del nfa en Dstates y, si no existe, lo agrega como estado sin marcar
+     * @param conjuntoEstados conjunto a analizar, no se debe modificar despues
+     * @return el indice del dstate
      */
-    private Dstate<DirectedGraph.NodeClass> getUniqueDstate(Dstate<DirectedGraph.NodeClass> dstate){
-        for (Dstate<DirectedGraph.NodeClass> dstate2: dStates){
-            // Si ya existe el estado, devolver dicho estado
-            if (dstate2.equals(dstate)){
-                return dstate2;
-            }
+    private int getDstate(BitSet conjuntoEstados){
+        Conjunto llave = new Conjunto(conjuntoEstados.stream().toArray());
+        Integer dstate = dStatesIndex.get(llave);
+        if (dstate == null){
+            dstate = dStates.size();
+            dStates.add(conjuntoEstados);
+            dStatesIndex.put(llave, dstate);
+            dStatesNoMarcados.add(dstate);
         }
+        return dstate;
+    }
 
-        // Si no existe estado, devolver el estado ingresado
-        return null;
+    /**
+     * Se utiliza para crear una nueva dTransicion
+     * @param startingState Estado desde el que se inicia
+     * @param finishingState Estado al que se llega con la transicion
+     * @param transition Transicion que provoca el cambio
+     */
+    private void addDtransition(int startingState, int finishingState, int transition){
+        if (numDTransitions == dFrom.length){
+            dFrom = Arrays.copyOf(dFrom, numDTransitions * 2);
+            dTo = Arrays.copyOf(dTo, numDTransitions * 2);
+            dSymbol = Arrays.copyOf(dSymbol, numDTransitions * 2);
+        }
+        dFrom[numDTransitions] = startingState;
+        dTo[numDTransitions] = finishingState;
+        dSymbol[numDTransitions] = transition;
+        numDTransitions++;
     }
 
     private DirectedGraph generateDFA(DirectedGraph nfa){
         DirectedGraph dfa = new DirectedGraph();
-        dfa.setAlphabet(nfa.getAlphabet());
-        int contador = 0;
-        HashMap<Dstate<DirectedGraph.NodeClass>, Integer> convertDstateToState = new HashMap<Dstate<DirectedGraph.NodeClass>, Integer>(dStates.size(), (float) 1.0);
-
-        // Crear nodo con cada dstate
-        for (Dstate<DirectedGraph.NodeClass> dstate: dStates){
-            // Agregar nuevo nodo a dfa
-            dfa.addNode(dfa, contador, dstate.isdStateInitial(), dstate.isdStateFinal());
+        dfa.setAlphabet((BitSet) dAlphabet.clone());
 
-            // Guardar equivalente en mapa
-            convertDstateToState.put(dstate, contador);
-
-            // Aumentar contador
-            contador++;
+        // Crear nodo con cada dstate, el ID es su indice en dStates
+        for (int contador = 0; contador < dStates.size(); contador++){
+            boolean isFinal = indiceFinalNfa >= 0 && dStates.get(contador).get(indiceFinalNfa);
+            dfa.addNode(dfa, contador, contador == 0, isFinal);
         }
 
         // Agregar las transiciones
-        for (Dtransition dtransition: dTransitions){
-            // Obtener nodo inicial de transicion
-            int nodoInicial = convertDstateToState.get(dtransition.getStartingState());
-
-            // Obtener nodo final de transicion
-            int nodoFinal = convertDstateToState.get(dtransition.getFinishingState());
-
-            // Crear nueva transicion
-            dfa.addEdges(dfa, dfa.getParticularNode(nodoInicial), dfa.getParticularNode(nodoFinal), dtransition.getTransition());
+        for (int t = 0; t < numDTransitions; t++){
+            dfa.addEdges(dfa, dfa.getParticularNode(dFrom[t]), dfa.getParticularNode(dTo[t]), dSymbol[t]);
         }
 
         return dfa;
     }
 
+    /**
+     * Estadisticas del automata de entrada de la ultima conversion
+     * @return estadisticas del nfa o null si no se ha convertido ninguno
+     */
+    public AutomatonStats getInputStats() {
+        return inputStats;
+    }
+
+    /**
+     * Estadisticas del automata resultante de la ultima conversion
+     * @return estadisticas del dfa o null si no se ha convertido ninguno
+     */
+    public AutomatonStats getOutputStats() {
+        return outputStats;
+    }
+
     /**
      * Devuelve el e-Closure de un estado
      * @param nodo estado a analizar
@@ -306,4 +498,124 @@ public class NFAToDFA  implements Serializable {
     public HashSet<DirectedGraph.NodeClass> getEClosure(DirectedGraph.NodeClass nodo){
         return eClosureStates.get(nodo);
     }
+
+    /**
+     * Estado compartido de la construccion por subconjuntos en paralelo: los Destados se internan con un numero
+     * temporal que depende del orden en que los hilos los encuentran, y los sucesores de cada uno se guardan por atomo
+     */
+    private static final class SubconjuntosParalelos {
+        private static final int UMBRAL = 8;  // Destados de la frontera que una tarea expande sin dividirse
+
+        private final int numAtomos;
+        private final BitSet[] closures;
+        private final int[][] atomosPorNodo, destinosPorNodo;
+        private final ConcurrentHashMap<Conjunto, Integer> ids = new ConcurrentHashMap<Conjunto, Integer>();
+        private final ConcurrentHashMap<Integer, BitSet> conjuntos = new ConcurrentHashMap<Integer, BitSet>();
+        private final ConcurrentHashMap<Integer, int[]> sucesores = new ConcurrentHashMap<Integer, int[]>();
+        private final AtomicInteger siguienteId = new AtomicInteger();
+
+        private SubconjuntosParalelos(int numAtomos, BitSet[] closures, int[][] atomosPorNodo, int[][] destinosPorNodo) {
+            this.numAtomos = numAtomos;
+            this.closures = closures;
+            this.atomosPorNodo = atomosPorNodo;
+            this.destinosPorNodo = destinosPorNodo;
+        }
+
+        /**
+         * Busca el numero temporal de un conjunto, creandolo si no existe. Si dos hilos encuentran el mismo conjunto
+         * nuevo a la vez, solo uno lo agrega; el numero que reservo el otro queda sin usar.
+         * @param nuevos cola donde se agregan los conjuntos nuevos, puede ser null
+         */
+        private int intern(BitSet conjunto, ConcurrentLinkedQueue<Integer> nuevos) {
+            Conjunto llave = new Conjunto(conjunto.stream().toArray());
+            Integer id = ids.get(llave);
+            if (id != null) return id;
+
+            int candidato = siguienteId.getAndIncrement();
+            conjuntos.put(candidato, conjunto);
+            id = ids.putIfAbsent(llave, candidato);
+            if (id != null) {
+                conjuntos.remove(candidato);
+                return id;
+            }
+            if (nuevos != null) nuevos.add(candidato);
+            return candidato;
+        }
+
+        /**
+         * Calcula e interna los sucesores de un Destado por cada atomo
+         */
+        private void expandir(int id, ConcurrentLinkedQueue<Integer> nuevos) {
+            BitSet[] alcanzadosPorAtomo = moveByAtom(conjuntos.get(id), numAtomos, closures, atomosPorNodo, destinosPorNodo);
+            int[] destinos = new int[numAtomos];
+            for (int atomo = 0; atomo < numAtomos; atomo++) {
+                destinos[atomo] = intern(alcanzadosPorAtomo[atomo], nuevos);
+            }
+            sucesores.put(id, destinos);
+        }
+
+        private int getNumIds() {
+            return siguienteId.get();
+        }
+
+        private BitSet getConjunto(int id) {
+            return conjuntos.get(id);
+        }
+
+        private int[] getSucesores(int id) {
+            return sucesores.get(id);
+        }
+
+        /**
+         * Expande un rango de la frontera, dividiendolo en dos tareas mientras sea mas grande que el umbral
+         */
+        private final class Expansion extends RecursiveAction {
+            private final int[] frontera;
+            private final int desde, hasta;
+            private final ConcurrentLinkedQueue<Integer> nuevos;
+
+            private Expansion(int[] frontera, int desde, int hasta, ConcurrentLinkedQueue<Integer> nuevos) {
+                this.frontera = frontera;
+                this.desde = desde;
+                this.hasta = hasta;
+                this.nuevos = nuevos;
+            }
+
+            @Override
+            protected void compute() {
+                if (hasta - desde <= UMBRAL) {
+                    for (int i = desde; i < hasta; i++) expandir(frontera[i], nuevos);
+                    return;
+                }
+                int mitad = (desde + hasta) >>> 1;
+                invokeAll(new Expansion(frontera, desde, mitad, nuevos), new Expansion(frontera, mitad, hasta, nuevos));
+            }
+        }
+    }
+
+    /**
+     * Conjunto de estados del nfa como llave de un HashMap: sus indices ordenados. Los conjuntos suelen tener pocos
+     * estados repartidos en todo el nfa, por lo que comparar los indices es mas barato que comparar el BitSet completo.
+     */
+    private static final class Conjunto {
+        private final int[] estados;
+        private final int hash;  // Se calcula una sola vez, el HashMap lo pide en cada busqueda y al crecer
+
+        private Conjunto(int[] estados) {
+            this.estados = estados;
+            this.hash = Arrays.hashCode(estados);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Conjunto)) return false;
+            Conjunto otro = (Conjunto) o;
+            return hash == otro.hash && Arrays.equals(estados, otro.estados);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
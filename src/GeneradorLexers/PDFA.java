@@ -1,9 +1,6 @@
 package GeneradorLexers;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
 
 
@@ -473,96 +470,44 @@ public class PDFA  implements Serializable {
      * @return descripcion de automata
      */
     public String automataDescription(){
-        // Nodos
-        LinkedList<PDFA.NodeClass> nodos = getAllNodes();
-        String resultNodos = "Estados: {";
-        int contador = 0;
-        for (PDFA.NodeClass i: nodos) {
-            resultNodos = resultNodos + String.valueOf((i.id));
-            if (contador < nodos.size()-1){
-                resultNodos = resultNodos + ", ";
-            }
-            else {
-                resultNodos = resultNodos + "}\n";
-            }
-            contador ++;
-        }
-
-        resultNodos += "\t- Son " + contador + " estados\n";
-
-        // Nodo Inicial
-        resultNodos = resultNodos + "Estado inicial: {";
-        contador = 0;
-        for (NodeClass i: nodeInitialMap) {
-            resultNodos = resultNodos + String.valueOf((i.id));
-            if (contador < nodeInitialMap.size()-1){
-                resultNodos = resultNodos + ", ";
-            }
-            else {
-                resultNodos = resultNodos + "}\n";
-            }
-            contador++;
-        }
-
-
-        // Nodo Final
-        resultNodos = resultNodos + "Estado(s) de aceptacion: {";
-        contador = 0;
-        for (NodeClass i: nodeFinalMap) {
-            resultNodos = resultNodos + String.valueOf((i.id));
-            if (contador < nodeFinalMap.size()-1){
-                resultNodos += ", ";
-            }
-            else {
-                resultNodos = resultNodos + "}\n";
-            }
-            contador ++;
+        StringBuilder resultado = new StringBuilder();
+        try {
+            AutomatonWriter.writeText(this, resultado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // StringBuilder no lanza IOException
         }
+        return resultado.toString();
+    }
 
-        // Simbolos
-        LinkedList<PDFA.edgeContents> edges = getEdges();
-        String resultEdges = "Simbolos: {";
-        contador = 0;
-        for (String i: alphabet) {
-            resultEdges = resultEdges + i;
-            if (contador < alphabet.size()-1){
-                resultEdges = resultEdges + ", ";
-            }
-            else {
-                resultEdges = resultEdges + "}\n";
-            }
-            contador ++;
-        }
+    /**
+     * Obtiene las estadisticas de forma y tamaño del automata del parser en una sola pasada, sin construir la
+     * descripcion en texto de automataDescription(). El alfabeto son las etiquetas distintas de las transiciones.
+     * @return estadisticas del automata
+     */
+    public AutomatonStats stats(){
+        int[] grados = new int[nodes.size()];
+        int numEdges = 0;
+        HashSet<String> simbolos = new HashSet<String>();
+        long bytes = AutomatonStats.linkedListBytes(nodes.size()) + AutomatonStats.linkedListBytes(edges.size())
+                + AutomatonStats.hashMapBytes(nodes.size()) + (long) nodes.size() * AutomatonStats.INTEGER
+                + AutomatonStats.hashMapBytes(kernelsMap.size())
+                + AutomatonStats.hashMapBytes(nodeInitialMap.size()) + AutomatonStats.hashMapBytes(nodeFinalMap.size());
 
-        // Edges
-        resultEdges = resultEdges + "Transiciones: {";
-        contador = 0;
-        for (PDFA.edgeContents i: edges) {
-            resultEdges = resultEdges + "(" + i.getStartingNode().getId() + ", " + i.getTransition() + ", " + i.getFinishingNode().getId() + ")";
-            if (contador < edges.size()-1){
-                resultEdges = resultEdges + ", ";
-            }
-            else {
-                resultEdges = resultEdges + "}\n";
+        int contador = 0;
+        for (NodeClass nodo: nodes) {
+            grados[contador++] = nodo.edges.size();
+            numEdges += nodo.edges.size();
+            for (edgeContents edge: nodo.edges) {
+                simbolos.add(edge.getTransition());
             }
-            contador ++;
-        }
-        resultEdges += "\t- Son " + contador + " transiciones.";
 
-        // Descripcion de todos los estados
-        String resultStates = "";
-        for (NodeClass nodo : nodos) {
-            resultStates += "\n_____________________________\n";
-            resultStates += nodo.toString();
-            resultStates += "\n_____________________________\n";
+            // Nodo, sus transiciones, items y siguientes elementos (los Item se cuentan una vez por estado)
+            bytes += 40 + AutomatonStats.linkedListBytes(nodo.edges.size()) + 32L * nodo.edges.size();
+            bytes += AutomatonStats.hashMapBytes(nodo.items.size()) + 40L * nodo.items.size();
+            bytes += AutomatonStats.hashMapBytes(nodo.nextElements.size());
         }
 
-        // Si existe una tabla, agregarla
-        if (tableSLR != null) {
-            resultStates += "\n\n" + tableSLR.tableDescription();
-        }
-
-        return resultNodos + resultEdges + resultStates;
+        return new AutomatonStats(nodes.size(), numEdges, 0, grados, simbolos.size(), nodeFinalMap.size(), bytes);
     }
 
     public HashSet<NodeClass> getNodeFinalMap() {
@@ -598,17 +543,14 @@ public class PDFA  implements Serializable {
         this.kernelsMap = kernelsMap;
     }
 
+    /**
+     * Escribe la descripcion del automata en PDFA.txt con un stream con buffer, sin construirla en memoria
+     */
     public void createDescriptionDocument(){
-        PrintWriter pW = null;
-        try {
-            pW = new PrintWriter(new File("PDFA.txt"));
-            pW.printf(automataDescription());
+        try (Writer salida = new BufferedWriter(new FileWriter("PDFA.txt"))) {
+            AutomatonWriter.writeText(this, salida);
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            if (pW != null) {
-                pW.close();
-            }
         }
     }
 
@@ -691,53 +633,53 @@ public class PDFA  implements Serializable {
         }
 
         public String tableDescription(){
-            String header = "____________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________\n" +
-                    "____________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________\n" +
-                    "                                                                                                                          SLR TABLE\n" +
-                    "____________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________\n" +
-                    "____________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________\n";
+            StringBuilder resultado = new StringBuilder();
+            try {
+                writeTable(resultado);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);  // StringBuilder no lanza IOException
+            }
+            return resultado.toString();
+        }
 
-            String titles = "|\t\tEstados\t\t";
+        /**
+         * Escribe la tabla SLR fila por fila en un Appendable
+         * @param out destino de la tabla
+         * @throws IOException si el destino falla
+         */
+        public void writeTable(Appendable out) throws IOException {
+            String linea = "____________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________________\n";
+            out.append(linea).append(linea)
+                    .append("                                                                                                                          SLR TABLE\n")
+                    .append(linea).append(linea);
+
+            out.append("|\t\tEstados\t\t");
             ArrayList<String> terminales = grammar.getTerminals();
             for (String symbol: terminales) {
-                titles += "|\t\t" + symbol + "\t\t";
+                out.append("|\t\t").append(symbol).append("\t\t");
             }
             ArrayList<String> noTerminales = grammar.getNonTerminals();
             for (String symbol: noTerminales) {
-                titles += "|\t\t" + symbol + "\t\t";
+                out.append("|\t\t").append(symbol).append("\t\t");
             }
-            titles += "|\n";
+            out.append("|\n");
 
             // Agregar los estados y sus acciones
-            String fila = "";
-            String[] action;
-            int estado;
             for (int i = 0; i < nodes.size(); i++) {
-                fila += "|\t\t" + i + "\t\t";
-                estado = i;
-
+                out.append("|\t\t").append(String.valueOf(i)).append("\t\t");
                 for (String symbol: terminales) {
-                    action = getAction(i, symbol);
-                    if (action == null) {
-                        action = new String[2];
-                        action[0] = "-";
-                        action[1] = "-";
-                    }
-                    fila += "|\t\t" + action[0] + action[1] + "\t\t";
+                    writeAction(out, getAction(i, symbol));
                 }
                 for (String symbol: noTerminales) {
-                    action = getAction(i, symbol);
-                    if (action == null) {
-                        action = new String[2];
-                        action[1] = "-";
-                        action[0] = "-";
-                    }
-                    fila += "|\t\t" + action[0] + action[1] + "\t\t";
+                    writeAction(out, getAction(i, symbol));
                 }
-                fila += "|\n";
+                out.append("|\n");
             }
+        }
 
-            return header + titles + fila;
+        private void writeAction(Appendable out, String[] action) throws IOException {
+            if (action == null) out.append("|\t\t--\t\t");
+            else out.append("|\t\t").append(action[0]).append(action[1]).append("\t\t");
         }
     }
 
@@ -0,0 +1,294 @@
+package GeneradorLexers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * La presente clase tiene como objetivo guardar los automatas ya construidos de cada expresion regular, para no
+ * volver a construirlos cuando CocolRReader, el Lexer generado o TestAutomatonCreators piden el mismo regex.
+ * La llave es la expresion normalizada (RegExNode.toInfix), asi (a)|b|c y [a-c] comparten entrada. Cada entrada
+ * guarda el postfix, el NFA de Thompson, el NFA de Glushkov, el DFA por subconjuntos y el DFA minimo, y cada etapa
+ * se construye la primera vez que se pide. El DFA se construye desde el NFA de Glushkov, que no tiene epsilon. Los automatas se guardan compactos (FrozenAutomaton), que son inmutables y se pueden compartir entre
+ * hilos; nfa() devuelve una copia nueva que el llamador puede modificar.
+ * El cache es acotado por el tamaño estimado en bytes de sus entradas y saca primero la usada hace mas tiempo (LRU).
+ * Si se liberan simbolos de SymbolTable (ver SymbolTable.Scope), las entradas que podrian usarlos se descartan la
+ * siguiente vez que se usa el cache y se construyen de nuevo cuando se vuelven a pedir.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class RegExCache {
+    /**
+     * Tamaño por defecto del cache compartido
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final RegExCache shared = new RegExCache(DEFAULT_MAX_BYTES);
+
+    /**
+     * Atributos
+     */
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);  // Orden de acceso
+    private long bytes = 0;  // Suma de los tamaños de las entradas, protegido por this
+    private int releaseCount = SymbolTable.getReleaseCount();  // Liberaciones de simbolos ya revisadas, protegido por this
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Crea un cache vacio
+     * @param maxBytes tamaño maximo estimado de las entradas en bytes
+     */
+    public RegExCache(long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("Error: el tamaño del cache debe ser positivo");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Devuelve el cache compartido por todo el proceso
+     * @return cache compartido
+     */
+    public static RegExCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Devuelve el postfix de una expresion regular
+     * @param regex expresion en infix
+     * @return expresion en postfix
+     */
+    public String postfix(String regex) {
+        return entry(regex).postfix();
+    }
+
+    /**
+     * Devuelve el NFA de Thompson de una expresion regular como un automata nuevo
+     * @param regex expresion en infix
+     * @return copia del NFA que se puede modificar
+     */
+    public DirectedGraph nfa(String regex) {
+        return entry(regex).frozenNfa().thaw();
+    }
+
+    /**
+     * Devuelve el NFA de Thompson compacto de una expresion regular
+     * @param regex expresion en infix
+     * @return NFA compartido, inmutable
+     */
+    public FrozenAutomaton frozenNfa(String regex) {
+        return entry(regex).frozenNfa();
+    }
+
+    /**
+     * Devuelve el NFA de posiciones (Glushkov) de una expresion regular, sin transiciones epsilon
+     * @param regex expresion en infix
+     * @return NFA compartido, inmutable
+     */
+    public FrozenAutomaton glushkovNfa(String regex) {
+        return entry(regex).glushkovNfa();
+    }
+
+    /**
+     * Devuelve el DFA por subconjuntos de una expresion regular
+     * @param regex expresion en infix
+     * @return DFA compartido, inmutable
+     */
+    public FrozenAutomaton dfa(String regex) {
+        return entry(regex).dfa();
+    }
+
+    /**
+     * Devuelve el DFA minimo de una expresion regular
+     * @param regex expresion en infix
+     * @return DFA minimo compartido, inmutable
+     */
+    public FrozenAutomaton minimizedDfa(String regex) {
+        return entry(regex).minimizedDfa();
+    }
+
+    /**
+     * Busca la entrada de una expresion, creandola si no existe
+     */
+    private Entry entry(String regex) {
+        RegExNode arbol = RegExParser.parse(regex);
+        String llave = arbol.toInfix();
+        synchronized (this) {
+            if (SymbolTable.getReleaseCount() != releaseCount) removeReleased();
+            Entry entrada = entries.get(llave);
+            if (entrada == null) {
+                entrada = new Entry(llave, arbol);
+                entries.put(llave, entrada);
+                resize(entrada, AutomatonStats.HEADER + 2L * llave.length());
+            }
+            return entrada;
+        }
+    }
+
+    /**
+     * Saca las entradas que podrian usar simbolos liberados de SymbolTable
+     */
+    private synchronized void removeReleased() {
+        releaseCount = SymbolTable.getReleaseCount();
+        Iterator<Map.Entry<String, Entry>> iterador = entries.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Entry entrada = iterador.next().getValue();
+            if (SymbolTable.lowestReleaseSince(entrada.releaseCount) < entrada.symbolLimit) {
+                iterador.remove();
+                bytes -= entrada.bytes;
+            }
+        }
+    }
+
+    /**
+     * Suma lo que crecio una entrada y saca las menos usadas hasta caber en maxBytes. La entrada que crecio no
+     * se saca aunque sea mas grande que el cache, para que quien la pidio pueda usarla.
+     */
+    private synchronized void resize(Entry entrada, long delta) {
+        if (entries.get(entrada.key) != entrada) return;  // Ya fue sacada, su tamaño no cuenta
+        entrada.bytes += delta;
+        bytes += delta;
+        Iterator<Map.Entry<String, Entry>> iterador = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterador.hasNext()) {
+            Entry menosUsada = iterador.next().getValue();
+            if (menosUsada == entrada) continue;
+            iterador.remove();
+            bytes -= menosUsada.bytes;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Vacia el cache, los contadores se conservan
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Cantidad de etapas pedidas que ya estaban construidas
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Cantidad de etapas pedidas que se tuvieron que construir
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RegExCache: " + size() + " regex, " + getBytes() + "/" + maxBytes + " bytes, " + getHits() + " hits, "
+                + getMisses() + " misses, " + getEvictions() + " evictions";
+    }
+
+    /**
+     * Etapas de una expresion regular. Cada etapa se construye una sola vez, bajo el candado de la entrada, por lo que
+     * dos hilos que piden el mismo regex no lo construyen dos veces y los que piden otros no esperan.
+     */
+    private final class Entry {
+        private final String key;
+        private final RegExNode tree;
+        private String postfix;
+        private FrozenAutomaton nfa, glushkovNfa, dfa, minimizedDfa;
+        private long bytes = 0;  // Protegido por el candado del cache
+        private final int releaseCount = SymbolTable.getReleaseCount();  // Liberaciones de simbolos al crear la entrada
+        private volatile int symbolLimit = SymbolTable.size();  // Cota de los simbolos que usan sus etapas
+
+        private Entry(String key, RegExNode tree) {
+            this.key = key;
+            this.tree = tree;
+        }
+
+        /**
+         * Registra los simbolos que pudo crear la etapa recien construida
+         */
+        private void updateSymbolLimit() {
+            symbolLimit = Math.max(symbolLimit, SymbolTable.size());
+        }
+
+        private synchronized String postfix() {
+            if (postfix == null) {
+                misses.incrementAndGet();
+                postfix = tree.toPostfix();
+                updateSymbolLimit();
+                resize(this, 2L * postfix.length());
+            } else {
+                hits.incrementAndGet();
+            }
+            return postfix;
+        }
+
+        private synchronized FrozenAutomaton frozenNfa() {
+            if (nfa == null) {
+                misses.incrementAndGet();
+                nfa = new RegExToNFA().evaluateFrozen(tree);
+                updateSymbolLimit();
+                resize(this, nfa.stats().getEstimatedBytes());
+            } else {
+                hits.incrementAndGet();
+            }
+            return nfa;
+        }
+
+        private synchronized FrozenAutomaton glushkovNfa() {
+            if (glushkovNfa == null) {
+                misses.incrementAndGet();
+                glushkovNfa = new RegExToDFA().createGlushkovNFA(tree);
+                updateSymbolLimit();
+                resize(this, glushkovNfa.stats().getEstimatedBytes());
+            } else {
+                hits.incrementAndGet();
+            }
+            return glushkovNfa;
+        }
+
+        private synchronized FrozenAutomaton dfa() {
+            if (dfa == null) {
+                FrozenAutomaton automata = glushkovNfa();
+                misses.incrementAndGet();
+                dfa = new NFAToDFA().convert(automata);
+                updateSymbolLimit();
+                resize(this, dfa.stats().getEstimatedBytes());
+            } else {
+                hits.incrementAndGet();
+            }
+            return dfa;
+        }
+
+        private synchronized FrozenAutomaton minimizedDfa() {
+            if (minimizedDfa == null) {
+                FrozenAutomaton automata = dfa();
+                misses.incrementAndGet();
+                minimizedDfa = new HopcroftMinimizator().minimizateDFA(automata);
+                updateSymbolLimit();
+                resize(this, minimizedDfa.stats().getEstimatedBytes());
+            } else {
+                hits.incrementAndGet();
+            }
+            return minimizedDfa;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package GeneradorLexers;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * La presente clase tiene como objetivo representar un nodo del arbol sintactico (AST) de una expresion regular. Los
+ * nodos son inmutables y compactos: un tipo, un simbolo de SymbolTable para las hojas y a lo sumo dos hijos.
+ * Al crear un OR de dos hojas con conjunto de caracteres se crea una sola hoja con la union, asi a|b|c|...|z es una
+ * hoja [a-z] para cualquier constructor de automatas que consuma el arbol. Al serializarse, las hojas escriben su
+ * conjunto de caracteres y no su simbolo, que solo es valido en este proceso.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class RegExNode implements Serializable {
+    /**
+     * Tipos de nodo
+     */
+    public static final int SYMBOL = 0;  // Hoja con un conjunto de caracteres
+    public static final int EPSILON = 1;  // Hoja epsilon (! sin escape)
+    public static final int END = 2;  // Hoja # de fin de cadena, solo para construccion directa
+    public static final int CONCAT = 3;
+    public static final int OR = 4;
+    public static final int STAR = 5;
+    public static final int PLUS = 6;
+    public static final int QMARK = 7;
+
+    /**
+     * Atributos
+     */
+    private final int type;
+    private transient int symbol;  // Simbolo de SymbolTable de las hojas SYMBOL, -1 en los demas nodos; solo se asigna al construir o deserializar
+    private final RegExNode left, right;  // Operandos, right es null en los operadores de un operando
+
+    private RegExNode(int type, int symbol, RegExNode left, RegExNode right) {
+        this.type = type;
+        this.symbol = symbol;
+        this.left = left;
+        this.right = right;
+    }
+
+    public static RegExNode symbol(int symbol) {
+        return new RegExNode(SYMBOL, symbol, null, null);
+    }
+
+    public static RegExNode symbol(char c) {
+        int simbolo = SymbolTable.lookup(c);  // Sin bloqueo ni objetos si el caracter ya tiene simbolo
+        return symbol(simbolo >= 0 ? simbolo : SymbolTable.intern(CharSet.of(c)));
+    }
+
+    public static RegExNode epsilon() {
+        return new RegExNode(EPSILON, SymbolTable.EPSILON, null, null);
+    }
+
+    public static RegExNode end() {
+        return new RegExNode(END, -1, null, null);
+    }
+
+    public static RegExNode concat(RegExNode left, RegExNode right) {
+        return new RegExNode(CONCAT, -1, left, right);
+    }
+
+    /**
+     * Crea la alternacion de dos expresiones. Si ambas son hojas con conjunto de caracteres, devuelve una sola hoja
+     * con la union de los conjuntos.
+     */
+    public static RegExNode or(RegExNode left, RegExNode right) {
+        CharSet conjunto1 = left.getCharSet();
+        CharSet conjunto2 = right.getCharSet();
+        if (conjunto1 != null && conjunto2 != null) return symbol(SymbolTable.intern(conjunto1.union(conjunto2)));
+        return new RegExNode(OR, -1, left, right);
+    }
+
+    public static RegExNode star(RegExNode operand) {
+        return new RegExNode(STAR, -1, operand, null);
+    }
+
+    public static RegExNode plus(RegExNode operand) {
+        return new RegExNode(PLUS, -1, operand, null);
+    }
+
+    public static RegExNode qMark(RegExNode operand) {
+        return new RegExNode(QMARK, -1, operand, null);
+    }
+
+    /**
+     * Indica si el nodo es una hoja
+     */
+    public boolean isLeaf() {
+        return type <= END;
+    }
+
+    /**
+     * Devuelve el conjunto de caracteres de una hoja SYMBOL
+     * @return conjunto o null si el nodo no es una hoja con conjunto de caracteres
+     */
+    public CharSet getCharSet() {
+        return type == SYMBOL ? SymbolTable.charSet(symbol) : null;
+    }
+
+    /**
+     * Recorre el arbol en postorden (hijo izquierdo, hijo derecho, raiz) sin recursion
+     * @return nodos en postorden
+     */
+    public ArrayList<RegExNode> postOrder() {
+        ArrayList<RegExNode> resultado = new ArrayList<RegExNode>();
+        ArrayList<RegExNode> pila = new ArrayList<RegExNode>();
+        pila.add(this);
+        while (!pila.isEmpty()) {
+            RegExNode nodo = pila.remove(pila.size() - 1);
+            resultado.add(nodo);
+            if (nodo.left != null) pila.add(nodo.left);
+            if (nodo.right != null) pila.add(nodo.right);
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    /**
+     * Escribe la expresion en el postfix que usaban RegExToNFA.evaluate(String) y RegExToDFA.createDFA(String). Los
+     * conjuntos de varios caracteres se escriben como una clase [...] (ver CharSet.toRegex), que parsePostfix lee
+     * como una sola hoja, asi [^a] ocupa unos cuantos caracteres y no uno por cada caracter del conjunto.
+     * @return expresion en postfix
+     */
+    public String toPostfix() {
+        StringBuilder resultado = new StringBuilder();
+        for (RegExNode nodo: postOrder()) {
+            switch (nodo.type) {
+                case SYMBOL:
+                    CharSet conjunto = nodo.getCharSet();
+                    if (conjunto.isSingleChar()) appendPostfixChar(resultado, (char) conjunto.getRangeStart(0));
+                    else resultado.append(conjunto.toRegex());
+                    break;
+                case EPSILON: resultado.append('!'); break;
+                case END: resultado.append('#'); break;
+                case CONCAT: resultado.append('.'); break;
+                case OR: resultado.append('|'); break;
+                case STAR: resultado.append('*'); break;
+                case PLUS: resultado.append('+'); break;
+                case QMARK: resultado.append('?'); break;
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Escribe la expresion en el infix de RegExParser, con los conjuntos como clases y solo los parentesis necesarios.
+     * Dos expresiones con el mismo arbol tienen el mismo texto, por lo que sirve como forma normalizada: (a)|b|c y
+     * [a-c] se escriben igual. La hoja # de fin de cadena se escribe como '#', que al leerse de nuevo es literal.
+     * @return expresion en infix normalizada
+     */
+    public String toInfix() {
+        ArrayList<String> textos = new ArrayList<String>();
+        ArrayList<Integer> precedencias = new ArrayList<Integer>();  // 0 OR, 1 CONCAT, 2 operador unario, 3 hoja
+        for (RegExNode nodo: postOrder()) {
+            String texto;
+            int precedencia;
+            if (nodo.isLeaf()) {
+                texto = nodo.type == SYMBOL ? nodo.getCharSet().toRegex() : nodo.type == EPSILON ? "!" : "#";
+                precedencia = 3;
+            } else if (nodo.type == CONCAT || nodo.type == OR) {
+                precedencia = nodo.type == OR ? 0 : 1;
+                String derecho = operandoInfix(textos, precedencias, precedencia);
+                String izquierdo = operandoInfix(textos, precedencias, precedencia);
+                texto = izquierdo + (nodo.type == OR ? "|" : "") + derecho;
+            } else {
+                precedencia = 2;
+                texto = operandoInfix(textos, precedencias, precedencia)
+                        + (nodo.type == STAR ? "*" : nodo.type == PLUS ? "+" : "?");
+            }
+            textos.add(texto);
+            precedencias.add(precedencia);
+        }
+        return textos.get(0);
+    }
+
+    /**
+     * Saca el ultimo operando de la pila de toInfix y lo encierra en parentesis si su operador es mas debil
+     */
+    private static String operandoInfix(ArrayList<String> textos, ArrayList<Integer> precedencias, int precedencia) {
+        String texto = textos.remove(textos.size() - 1);
+        return precedencias.remove(precedencias.size() - 1) < precedencia ? "(" + texto + ")" : texto;
+    }
+
+    private static void appendPostfixChar(StringBuilder sb, char c) {
+        if (c == '|' || c == '.' || c == '*' || c == '+' || c == '?' || c == '!' || c == '#' || c == '[' || c == '\\' || c == '(' || c == ')') {
+            sb.append('\\');
+        }
+        sb.append(c);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (type == SYMBOL) SymbolTable.writeSymbol(out, symbol);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        symbol = type == SYMBOL ? SymbolTable.readSymbol(in) : type == EPSILON ? SymbolTable.EPSILON : -1;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getSymbol() {
+        return symbol;
+    }
+
+    public RegExNode getLeft() {
+        return left;
+    }
+
+    public RegExNode getRight() {
+        return right;
+    }
+}
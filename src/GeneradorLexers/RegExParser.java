@@ -0,0 +1,442 @@
+package GeneradorLexers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * La presente clase tiene como objetivo leer una expresion regular en infix y construir su arbol sintactico
+ * (RegExNode) en una sola pasada sobre un char[]. Sustituye a la conversion a postfix de RegExConverter, que
+ * reescribia la expresion caracter por caracter. Los grupos abiertos se guardan en una pila explicita en lugar de la
+ * pila de llamadas, por lo que la profundidad de los parentesis no esta limitada por la pila del hilo.
+ * Gramatica (la concatenacion es implicita):
+ *     alternacion   := concatenacion ('|' concatenacion)*
+ *     concatenacion := repeticion*
+ *     repeticion    := atomo ('*' | '+' | '?' | '{' m '}' | '{' m ',' '}' | '{' m ',' n '}')*
+ *     atomo         := '(' alternacion ')' | '[' '^'? elemento+ ']' | '\' caracter | '!' | caracter
+ *     elemento      := caracter ('-' caracter)?
+ * El ! sin escape es epsilon y una alternativa vacia, como en (a|), tambien. Cualquier otro caracter, incluidos '.' y
+ * '#', es literal. Dentro de una clase, \ escapa cualquier caracter y '-' al inicio o al final es literal.
+ * Una clase es una sola hoja con su conjunto de caracteres (la negacion es el complemento sobre 0 a 0xFFFF) y la
+ * repeticion acotada se desenrolla: x{2,4} es xx(x(x)?)? y x{2,} es xxx*. Las copias comparten el mismo nodo
+ * inmutable, los constructores de automatas recorren el arbol y crean un fragmento por cada aparicion. Por eso se
+ * lleva el tamaño expandido de cada subexpresion (el arbol sin compartir nodos) y su tamaño escrito (el arbol con
+ * cada repeticion acotada como un solo nodo); las repeticiones anidadas, como ((a{1000}){1000}){1000}, se rechazan
+ * si la diferencia pasa de MAX_NODOS_DESENROLLADOS. Una expresion grande sin repeticiones acotadas no tiene limite.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class RegExParser {
+    /**
+     * Limite de los nodos que agregan las repeticiones acotadas al desenrollarse, contados en el arbol sin compartir.
+     * Cada nodo agrega a lo sumo un par de estados al automata de Thompson.
+     */
+    public static final int MAX_NODOS_DESENROLLADOS = 100000;
+
+    /**
+     * Atributos
+     */
+    private final char[] regex;
+    private int posicion;
+    private long tamano;  // Tamaño expandido del ultimo nodo que se leyo
+    private long escrito;  // Tamaño escrito del ultimo nodo que se leyo
+
+    private RegExParser(char[] regex) {
+        this.regex = regex;
+        this.posicion = 0;
+    }
+
+    /**
+     * Construye el arbol sintactico de una expresion regular en infix
+     * @param regex expresion regular
+     * @return raiz del arbol
+     * @throws IllegalArgumentException si la expresion esta mal formada
+     */
+    public static RegExNode parse(String regex) {
+        return parse(regex.toCharArray());
+    }
+
+    /**
+     * Construye el arbol sintactico de una expresion regular en infix
+     * @param regex caracteres de la expresion regular
+     * @return raiz del arbol
+     * @throws IllegalArgumentException si la expresion esta mal formada
+     */
+    public static RegExNode parse(char[] regex) {
+        return new RegExParser(regex).expresion();
+    }
+
+    /**
+     * Construye el arbol sintactico de una expresion en el postfix de RegExConverter.infixToPostfix. Un '[' sin
+     * escape inicia una clase de caracteres que se lee como en infix.
+     * @param postfix expresion en postfix
+     * @param hashIsEnd indica si el # sin escape es el fin de cadena de la construccion directa (si no, es literal)
+     * @return raiz del arbol
+     * @throws IllegalArgumentException si la expresion esta mal formada
+     */
+    public static RegExNode parsePostfix(String postfix, boolean hashIsEnd) {
+        char[] expr = postfix.toCharArray();
+        ArrayList<Object> pila = new ArrayList<Object>();  // RegExNode o UnionPendiente
+        for (int i = 0; i < expr.length; i++) {
+            char c = expr[i];
+            Object op1, op2;
+            switch (c) {
+                case '\\':
+                    if (++i >= expr.length) throw new IllegalArgumentException("Error: '\\' al final de la expresion");
+                    pila.add(new UnionPendiente(expr[i]));
+                    break;
+                case '.':
+                case '|':
+                    if (pila.size() < 2) throw new IllegalArgumentException("Error: faltan operandos para '" + c + "'");
+                    op2 = pila.remove(pila.size() - 1);
+                    op1 = pila.remove(pila.size() - 1);
+                    if (c == '|' && esConjunto(op1) && esConjunto(op2)) {
+                        // Unir los pares de ambos sin internar, la union se interna una sola vez al usarse
+                        // Se agrega a la union que ya existe para que la cadena sea lineal aunque se anide por la derecha
+                        if (!(op1 instanceof UnionPendiente) && op2 instanceof UnionPendiente) {
+                            Object temporal = op1;
+                            op1 = op2;
+                            op2 = temporal;
+                        }
+                        UnionPendiente union;
+                        if (op1 instanceof UnionPendiente) {
+                            union = (UnionPendiente) op1;
+                        } else {
+                            union = new UnionPendiente();
+                            union.agregar(op1);
+                        }
+                        union.agregar(op2);
+                        pila.add(union);
+                    } else {
+                        pila.add(c == '.' ? RegExNode.concat(nodo(op1), nodo(op2)) : RegExNode.or(nodo(op1), nodo(op2)));
+                    }
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                    if (pila.isEmpty()) throw new IllegalArgumentException("Error: falta operando para '" + c + "'");
+                    RegExNode operando = nodo(pila.remove(pila.size() - 1));
+                    pila.add(c == '*' ? RegExNode.star(operando) : c == '+' ? RegExNode.plus(operando) : RegExNode.qMark(operando));
+                    break;
+                case '!':
+                    pila.add(RegExNode.epsilon());
+                    break;
+                case '[':
+                    // Clase de caracteres, con las mismas reglas que en infix
+                    RegExParser lectorClase = new RegExParser(expr);
+                    lectorClase.posicion = i + 1;
+                    pila.add(lectorClase.clase());
+                    i = lectorClase.posicion - 1;
+                    break;
+                default:
+                    pila.add(c == '#' && hashIsEnd ? RegExNode.end() : new UnionPendiente(c));
+            }
+        }
+        if (pila.size() != 1) throw new IllegalArgumentException("Error: expresion en postfix incompleta");
+        return nodo(pila.get(0));
+    }
+
+    /**
+     * Indica si un elemento de la pila de parsePostfix es un conjunto de caracteres
+     */
+    private static boolean esConjunto(Object elemento) {
+        return elemento instanceof UnionPendiente || ((RegExNode) elemento).getCharSet() != null;
+    }
+
+    /**
+     * Convierte un elemento de la pila de parsePostfix en nodo, internando la union pendiente
+     */
+    private static RegExNode nodo(Object elemento) {
+        return elemento instanceof UnionPendiente ? ((UnionPendiente) elemento).crearHoja() : (RegExNode) elemento;
+    }
+
+    /**
+     * Conjunto de caracteres de parsePostfix que aun no se interna: un caracter literal o la union de una cadena de
+     * '|'. Asi a b | c | ... se une con una sola llamada a CharSet.fromPairs, en tiempo lineal, y solo la union final
+     * queda en SymbolTable, no un conjunto por cada '|' ni un simbolo por cada caracter.
+     */
+    private static final class UnionPendiente {
+        private int[] pares = new int[8];
+        private int numPares = 0;
+
+        private UnionPendiente() {
+        }
+
+        private UnionPendiente(char c) {
+            agregarPar(c);
+            agregarPar(c);
+        }
+
+        private void agregar(Object elemento) {
+            if (elemento instanceof UnionPendiente) {
+                UnionPendiente otra = (UnionPendiente) elemento;
+                for (int i = 0; i < otra.numPares; i++) agregarPar(otra.pares[i]);
+                return;
+            }
+            CharSet conjunto = ((RegExNode) elemento).getCharSet();
+            for (int r = 0; r < conjunto.getNumRanges(); r++) {
+                agregarPar(conjunto.getRangeStart(r));
+                agregarPar(conjunto.getRangeEnd(r));
+            }
+        }
+
+        private void agregarPar(int valor) {
+            if (numPares == pares.length) pares = Arrays.copyOf(pares, pares.length * 2);
+            pares[numPares++] = valor;
+        }
+
+        private RegExNode crearHoja() {
+            if (numPares == 2 && pares[0] == pares[1]) return RegExNode.symbol((char) pares[0]);
+            return RegExNode.symbol(SymbolTable.intern(CharSet.fromPairs(pares, numPares)));
+        }
+    }
+
+    /**
+     * Lee la expresion completa. Cada '(' apila un grupo nuevo y cada ')' lo cierra: su alternacion queda como
+     * operando de las repeticiones que le siguen y se agrega a la concatenacion del grupo de abajo.
+     */
+    private RegExNode expresion() {
+        ArrayList<Grupo> pila = new ArrayList<Grupo>();
+        Grupo actual = new Grupo();
+        while (true) {
+            if (posicion >= regex.length) {
+                if (!pila.isEmpty()) throw error("falta ')'");
+                return actual.terminar();
+            }
+            char c = regex[posicion];
+            if (c == '|') {
+                actual.terminarAlternativa();
+                posicion++;
+            } else if (c == ')') {
+                if (pila.isEmpty()) throw error("')' sin '(' correspondiente");
+                posicion++;
+                RegExNode grupo = actual.terminar();
+                actual = pila.remove(pila.size() - 1);
+                actual.agregar(repeticion(grupo));
+            } else if (c == '(') {
+                posicion++;
+                pila.add(actual);
+                actual = new Grupo();
+            } else {
+                actual.agregar(repeticion(atomo()));
+            }
+        }
+    }
+
+    /**
+     * Grupo abierto: sus alternativas ya terminadas y la concatenacion de la alternativa actual.
+     * Las alternativas que son conjuntos de caracteres se unen en una sola hoja al final, con una sola llamada a
+     * CharSet.fromPairs, en lugar de unir e internar un conjunto por cada '|'.
+     */
+    private final class Grupo {
+        private final ArrayList<RegExNode> alternativas = new ArrayList<RegExNode>();
+        private int[] pares = new int[8];
+        private int numPares = 0;
+        private int posicionConjunto = -1;  // Lugar de la hoja con la union entre las alternativas
+        private long tamanoTotal = -1, escritoTotal = -1;  // Sin contar el primer '|'
+        private RegExNode concatenacion = null;
+        private long tamanoConcatenacion = 0, escritoConcatenacion = 0;
+
+        /**
+         * Agrega a la concatenacion actual el ultimo nodo leido, cuyos tamaños estan en tamano y escrito
+         */
+        private void agregar(RegExNode siguiente) {
+            int nuevos = concatenacion == null ? 0 : 1;
+            tamanoConcatenacion += nuevos + tamano;
+            escritoConcatenacion += nuevos + escrito;
+            verificarTamano(tamanoConcatenacion, escritoConcatenacion);
+            concatenacion = concatenacion == null ? siguiente : RegExNode.concat(concatenacion, siguiente);
+        }
+
+        private void terminarAlternativa() {
+            RegExNode alternativa = concatenacion == null ? RegExNode.epsilon() : concatenacion;
+            tamanoTotal += 1 + (concatenacion == null ? 1 : tamanoConcatenacion);
+            escritoTotal += 1 + (concatenacion == null ? 1 : escritoConcatenacion);
+            verificarTamano(tamanoTotal, escritoTotal);
+            concatenacion = null;
+            tamanoConcatenacion = 0;
+            escritoConcatenacion = 0;
+
+            CharSet conjunto = alternativa.getCharSet();
+            if (conjunto == null) {
+                alternativas.add(alternativa);
+                return;
+            }
+            if (posicionConjunto < 0) {
+                posicionConjunto = alternativas.size();
+                alternativas.add(alternativa);
+            }
+            for (int r = 0; r < conjunto.getNumRanges(); r++) {
+                if (numPares + 2 > pares.length) pares = Arrays.copyOf(pares, pares.length * 2);
+                pares[numPares++] = conjunto.getRangeStart(r);
+                pares[numPares++] = conjunto.getRangeEnd(r);
+            }
+        }
+
+        /**
+         * Termina la ultima alternativa y devuelve la alternacion del grupo, dejando sus tamaños en tamano y escrito
+         */
+        private RegExNode terminar() {
+            terminarAlternativa();
+            if (posicionConjunto >= 0 && numPares > 2) {
+                alternativas.set(posicionConjunto, RegExNode.symbol(SymbolTable.intern(CharSet.fromPairs(pares, numPares))));
+            }
+            RegExNode resultado = alternativas.get(0);
+            for (int i = 1; i < alternativas.size(); i++) resultado = RegExNode.or(resultado, alternativas.get(i));
+            tamano = tamanoTotal;
+            escrito = escritoTotal;
+            return resultado;
+        }
+    }
+
+    /**
+     * Aplica al operando las repeticiones que le siguen. Los tamaños del operando estan en tamano y escrito.
+     */
+    private RegExNode repeticion(RegExNode operando) {
+        RegExNode resultado = operando;
+        while (posicion < regex.length) {
+            char c = regex[posicion];
+            if (c == '{') {
+                resultado = repeticionAcotada(resultado);
+                continue;
+            }
+            if (c == '*') resultado = RegExNode.star(resultado);
+            else if (c == '+') resultado = RegExNode.plus(resultado);
+            else if (c == '?') resultado = RegExNode.qMark(resultado);
+            else break;
+            tamano++;
+            escrito++;
+            posicion++;
+        }
+        return resultado;
+    }
+
+    /**
+     * Lee {m}, {m,} o {m,n} y desenrolla la repeticion del operando, cuyos tamaños estan en tamano y escrito
+     */
+    private RegExNode repeticionAcotada(RegExNode operando) {
+        posicion++;  // '{'
+        int minimo = numero();
+        int maximo = minimo;
+        if (posicion < regex.length && regex[posicion] == ',') {
+            posicion++;
+            maximo = posicion < regex.length && regex[posicion] == '}' ? -1 : numero();
+        }
+        if (posicion >= regex.length || regex[posicion] != '}') throw error("falta '}'");
+        posicion++;
+        if (maximo >= 0 && maximo < minimo) throw error("repeticion {" + minimo + "," + maximo + "} invalida");
+
+        // Cada copia repite el operando completo y agrega a lo sumo un '.' y un '?'
+        // x{0} queda como epsilon, se cuenta como escrito para no restarle a las demas repeticiones
+        long copias = maximo < 0 ? minimo + 1 : maximo;
+        escrito++;
+        tamano = copias == 0 ? escrito : copias * (tamano + 2);
+        verificarTamano(tamano, escrito);
+
+        // Parte opcional: (x(x(x)?)?)? para n - m copias, o x* sin limite superior
+        RegExNode resultado = null;
+        if (maximo < 0) {
+            resultado = RegExNode.star(operando);
+        } else {
+            for (int i = minimo; i < maximo; i++) {
+                resultado = RegExNode.qMark(resultado == null ? operando : RegExNode.concat(operando, resultado));
+            }
+        }
+        // Parte obligatoria: m copias
+        for (int i = 0; i < minimo; i++) {
+            resultado = resultado == null ? operando : RegExNode.concat(operando, resultado);
+        }
+        return resultado == null ? RegExNode.epsilon() : resultado;
+    }
+
+    private int numero() {
+        int inicio = posicion;
+        int valor = 0;
+        while (posicion < regex.length && regex[posicion] >= '0' && regex[posicion] <= '9') {
+            valor = valor * 10 + (regex[posicion++] - '0');
+            if (valor > MAX_NODOS_DESENROLLADOS) throw error("repeticion mayor que " + MAX_NODOS_DESENROLLADOS);
+        }
+        if (posicion == inicio) throw error("se esperaba un numero en la repeticion");
+        return valor;
+    }
+
+    /**
+     * Lee un atomo que no es grupo; los grupos los abre y cierra expresion
+     */
+    private RegExNode atomo() {
+        char c = regex[posicion++];
+        tamano = 1;
+        escrito = 1;
+        switch (c) {
+            case '[':
+                return clase();
+            case '\\':
+                if (posicion >= regex.length) throw error("'\\' al final de la expresion");
+                return RegExNode.symbol(regex[posicion++]);
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw error("'" + c + "' sin operando");
+            case '!':
+                return RegExNode.epsilon();
+            default:
+                return RegExNode.symbol(c);
+        }
+    }
+
+    /**
+     * Lee una clase [...] o [^...] despues del '[' y devuelve una sola hoja con su conjunto de caracteres
+     */
+    private RegExNode clase() {
+        boolean negada = posicion < regex.length && regex[posicion] == '^';
+        if (negada) posicion++;
+        int[] pares = new int[8];
+        int numPares = 0;
+        while (true) {
+            if (posicion >= regex.length) throw error("falta ']'");
+            if (regex[posicion] == ']') break;
+            char inicio = caracterDeClase();
+            char fin = inicio;
+            if (posicion + 1 < regex.length && regex[posicion] == '-' && regex[posicion + 1] != ']') {
+                posicion++;
+                fin = caracterDeClase();
+                if (fin < inicio) throw error("rango " + inicio + "-" + fin + " invalido");
+            }
+            if (numPares + 2 > pares.length) pares = Arrays.copyOf(pares, pares.length * 2);
+            pares[numPares++] = inicio;
+            pares[numPares++] = fin;
+        }
+        posicion++;  // ']'
+
+        if (numPares == 0) throw error("clase vacia");
+        CharSet conjunto = CharSet.fromPairs(pares, numPares);
+        if (negada) conjunto = conjunto.complement();
+        if (conjunto.isEmpty()) throw error("clase vacia");
+        return RegExNode.symbol(SymbolTable.intern(conjunto));
+    }
+
+    private char caracterDeClase() {
+        char c = regex[posicion++];
+        if (c == '\\') {
+            if (posicion >= regex.length) throw error("'\\' al final de la expresion");
+            c = regex[posicion++];
+        }
+        return c;
+    }
+
+    /**
+     * Revisa que los nodos que agregan las repeticiones acotadas, la diferencia entre el tamaño expandido y el
+     * escrito, no pasen del limite. Se revisa en cada nodo, asi el tamaño expandido nunca pasa del escrito mas el
+     * limite y no se desborda.
+     */
+    private void verificarTamano(long tamanoExpandido, long tamanoEscrito) {
+        if (tamanoExpandido - tamanoEscrito > MAX_NODOS_DESENROLLADOS) {
+            throw error("las repeticiones agregan mas de " + MAX_NODOS_DESENROLLADOS + " nodos a la expresion");
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("Error: " + mensaje + " en la posicion " + posicion + " de la expresion regular");
+    }
+}
@@ -0,0 +1,295 @@
+package GeneradorLexers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * La presente clase tiene como objetivo simplificar el arbol sintactico de una expresion regular antes de construir
+ * su automata, sin cambiar el lenguaje que reconoce. Reglas:
+ * - Las alternativas que son conjuntos de caracteres se unen en una sola clase: a|x|b|yz es [abx]|yz.
+ * - Las alternativas que empiezan con el mismo caracter o clase se factorizan por la izquierda:
+ *   while|when|if es wh(ile|en)|if. Una alternativa repetida queda una sola vez.
+ * - Los operadores unarios anidados se reducen: (x*)*, (x?)*, (x+)*, (x*)?, (x+)? y (x?)+ son x*; (x+)+ es x+ y
+ *   (x?)? es x?. Un operador sobre epsilon es epsilon.
+ * - Epsilon desaparece de las concatenaciones (a!b es ab) y una alternativa epsilon se vuelve '?': a|! es a?.
+ * Un arbol mas pequeño da un NFA de Thompson con menos estados y menos conjuntos en la construccion por subconjuntos.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class RegExSimplifier {
+
+    private RegExSimplifier() {}
+
+    /**
+     * Simplifica un arbol sintactico
+     * @param regex raiz del arbol (ver RegExParser)
+     * @return raiz del arbol simplificado, que reconoce el mismo lenguaje
+     */
+    public static RegExNode simplify(RegExNode regex) {
+        ArrayList<RegExNode> nodos = regex.postOrder();
+
+        // Las alternaciones hijas de otra alternacion se simplifican junto con la de arriba, asi una lista de n
+        // alternativas se procesa una vez y no n veces
+        IdentityHashMap<RegExNode, Boolean> internas = new IdentityHashMap<RegExNode, Boolean>();
+        for (RegExNode nodo: nodos) {
+            if (nodo.getType() != RegExNode.OR) continue;
+            if (nodo.getLeft().getType() == RegExNode.OR) internas.put(nodo.getLeft(), true);
+            if (nodo.getRight().getType() == RegExNode.OR) internas.put(nodo.getRight(), true);
+        }
+
+        // Los nodos compartidos (por ejemplo las copias de x{m,n}) se simplifican una sola vez
+        IdentityHashMap<RegExNode, RegExNode> simplificados = new IdentityHashMap<RegExNode, RegExNode>(nodos.size());
+        for (RegExNode nodo: nodos) {
+            if (simplificados.containsKey(nodo) || internas.containsKey(nodo)) continue;
+            simplificados.put(nodo, simplificarNodo(nodo, simplificados));
+        }
+        return simplificados.get(regex);
+    }
+
+    /**
+     * Simplifica un nodo cuyos hijos ya estan simplificados, salvo las alternaciones internas
+     */
+    private static RegExNode simplificarNodo(RegExNode nodo, IdentityHashMap<RegExNode, RegExNode> simplificados) {
+        switch (nodo.getType()) {
+            case RegExNode.CONCAT:
+                return concatenar(simplificado(nodo.getLeft(), simplificados), simplificado(nodo.getRight(), simplificados));
+            case RegExNode.OR:
+                // Alternativas de toda la cadena de ORs, en orden
+                ArrayList<RegExNode> alternativas = new ArrayList<RegExNode>();
+                ArrayList<RegExNode> pila = new ArrayList<RegExNode>();
+                pila.add(nodo);
+                while (!pila.isEmpty()) {
+                    RegExNode actual = pila.remove(pila.size() - 1);
+                    if (actual.getType() == RegExNode.OR) {
+                        pila.add(actual.getRight());
+                        pila.add(actual.getLeft());
+                    } else {
+                        alternativas.add(simplificado(actual, simplificados));
+                    }
+                }
+                return alternacion(alternativas);
+            case RegExNode.STAR:
+            case RegExNode.PLUS:
+            case RegExNode.QMARK:
+                return unario(nodo.getType(), simplificado(nodo.getLeft(), simplificados));
+            default:
+                return nodo;  // Las hojas no cambian
+        }
+    }
+
+    /**
+     * Devuelve la version simplificada de un hijo. Una alternacion interna que tambien se usa fuera de su cadena de
+     * ORs se simplifica aqui por separado.
+     */
+    private static RegExNode simplificado(RegExNode nodo, IdentityHashMap<RegExNode, RegExNode> simplificados) {
+        RegExNode resultado = simplificados.get(nodo);
+        if (resultado == null) {
+            resultado = simplificarNodo(nodo, simplificados);
+            simplificados.put(nodo, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Concatena dos expresiones ya simplificadas, quitando epsilon
+     */
+    private static RegExNode concatenar(RegExNode izquierdo, RegExNode derecho) {
+        if (izquierdo.getType() == RegExNode.EPSILON) return derecho;
+        if (derecho.getType() == RegExNode.EPSILON) return izquierdo;
+        return RegExNode.concat(izquierdo, derecho);
+    }
+
+    /**
+     * Concatena los factores desde la posicion inicio, o devuelve epsilon si no hay ninguno
+     */
+    private static RegExNode concatenar(ArrayList<RegExNode> factores, int inicio) {
+        RegExNode resultado = RegExNode.epsilon();
+        for (int i = inicio; i < factores.size(); i++) resultado = concatenar(resultado, factores.get(i));
+        return resultado;
+    }
+
+    /**
+     * Aplica un operador unario a una expresion ya simplificada, reduciendo los operadores anidados
+     */
+    private static RegExNode unario(int tipo, RegExNode operando) {
+        if (operando.getType() == RegExNode.EPSILON) return operando;
+
+        int tipoOperando = operando.getType();
+        if (tipoOperando == RegExNode.STAR || tipoOperando == RegExNode.PLUS || tipoOperando == RegExNode.QMARK) {
+            if (tipo == tipoOperando) return operando;
+            return RegExNode.star(operando.getLeft());  // Cualquier otra combinacion de *, + y ? acepta cero o mas repeticiones
+        }
+
+        if (tipo == RegExNode.STAR) return RegExNode.star(operando);
+        if (tipo == RegExNode.PLUS) return RegExNode.plus(operando);
+        return RegExNode.qMark(operando);
+    }
+
+    /**
+     * Simplifica una alternacion: une las clases, factoriza los prefijos comunes y convierte la alternativa epsilon
+     * en '?'. Los restos de cada grupo factorizado se simplifican como otra alternacion; las alternaciones pendientes
+     * se guardan en una pila explicita, sin recursion, porque una lista como a|aa|aaa|... anida un nivel por
+     * alternativa.
+     * @param alternativas alternativas ya simplificadas, pueden ser alternaciones
+     * @return expresion simplificada
+     */
+    private static RegExNode alternacion(ArrayList<RegExNode> alternativas) {
+        ArrayList<Factorizacion> pila = new ArrayList<Factorizacion>();
+        Factorizacion actual = new Factorizacion(alternativas);
+        while (true) {
+            ArrayList<RegExNode> restos = actual.siguientesRestos();
+            if (restos != null) {
+                pila.add(actual);
+                actual = new Factorizacion(restos);
+                continue;
+            }
+            RegExNode resultado = actual.terminar();
+            if (pila.isEmpty()) return resultado;
+            actual = pila.remove(pila.size() - 1);
+            actual.agregarResto(resultado);
+        }
+    }
+
+    /**
+     * Alternacion que se esta simplificando: sus grupos por primer simbolo y los resultados de los grupos ya
+     * factorizados
+     */
+    private static final class Factorizacion {
+        private final ArrayList<ArrayList<ArrayList<RegExNode>>> grupos = new ArrayList<ArrayList<ArrayList<RegExNode>>>();
+        private final ArrayList<RegExNode> resultados = new ArrayList<RegExNode>();
+        private boolean tieneEpsilon = false;
+        private int siguienteGrupo = 0;
+        private CharSet clase = null;
+        private int posicionClase = -1;
+        private ArrayList<RegExNode> prefijoPendiente;  // Prefijo comun del grupo cuyos restos se estan simplificando
+
+        private Factorizacion(ArrayList<RegExNode> alternativas) {
+            // Aplanar las alternaciones anidadas, conservando el orden
+            ArrayList<RegExNode> planas = new ArrayList<RegExNode>();
+            ArrayList<RegExNode> pila = new ArrayList<RegExNode>();
+            for (int i = alternativas.size() - 1; i >= 0; i--) pila.add(alternativas.get(i));
+            while (!pila.isEmpty()) {
+                RegExNode nodo = pila.remove(pila.size() - 1);
+                if (nodo.getType() == RegExNode.OR) {
+                    pila.add(nodo.getRight());
+                    pila.add(nodo.getLeft());
+                } else {
+                    planas.add(nodo);
+                }
+            }
+
+            // Agrupar las secuencias por su primer simbolo; las demas alternativas quedan aparte sin repetirse
+            LinkedHashMap<Object, ArrayList<ArrayList<RegExNode>>> porLlave = new LinkedHashMap<Object, ArrayList<ArrayList<RegExNode>>>();
+            HashSet<String> otras = new HashSet<String>();
+            for (RegExNode alternativa: planas) {
+                if (alternativa.getType() == RegExNode.EPSILON) {
+                    tieneEpsilon = true;
+                    continue;
+                }
+                ArrayList<RegExNode> factores = secuencia(alternativa);
+                Object llave;
+                if (factores.get(0).getType() == RegExNode.SYMBOL) {
+                    llave = factores.get(0).getSymbol();
+                } else {
+                    String texto = alternativa.toInfix();
+                    if (!otras.add(texto)) continue;
+                    llave = texto;
+                }
+                ArrayList<ArrayList<RegExNode>> grupo = porLlave.get(llave);
+                if (grupo == null) {
+                    grupo = new ArrayList<ArrayList<RegExNode>>();
+                    porLlave.put(llave, grupo);
+                }
+                grupo.add(factores);
+            }
+            grupos.addAll(porLlave.values());
+        }
+
+        /**
+         * Procesa los grupos siguientes hasta encontrar uno con varias secuencias. Las secuencias de un solo simbolo
+         * se unen en una clase.
+         * @return restos despues del prefijo comun de ese grupo, o null si ya no quedan grupos
+         */
+        private ArrayList<RegExNode> siguientesRestos() {
+            while (siguienteGrupo < grupos.size()) {
+                ArrayList<ArrayList<RegExNode>> grupo = grupos.get(siguienteGrupo++);
+                ArrayList<RegExNode> primera = grupo.get(0);
+                if (grupo.size() == 1) {
+                    if (primera.size() == 1 && primera.get(0).getType() == RegExNode.SYMBOL) {
+                        CharSet conjunto = primera.get(0).getCharSet();
+                        if (clase == null) {
+                            posicionClase = resultados.size();
+                            resultados.add(null);
+                            clase = conjunto;
+                        } else {
+                            clase = clase.union(conjunto);
+                        }
+                    } else {
+                        resultados.add(concatenar(primera, 0));
+                    }
+                    continue;
+                }
+
+                // Prefijo comun de simbolos de todas las secuencias del grupo
+                int prefijo = 1;
+                boolean comun = true;
+                while (comun && prefijo < primera.size() && primera.get(prefijo).getType() == RegExNode.SYMBOL) {
+                    for (ArrayList<RegExNode> factores: grupo) {
+                        if (factores.size() <= prefijo || factores.get(prefijo).getType() != RegExNode.SYMBOL
+                                || factores.get(prefijo).getSymbol() != primera.get(prefijo).getSymbol()) {
+                            comun = false;
+                            break;
+                        }
+                    }
+                    if (comun) prefijo++;
+                }
+
+                ArrayList<RegExNode> restos = new ArrayList<RegExNode>();
+                for (ArrayList<RegExNode> factores: grupo) restos.add(concatenar(factores, prefijo));
+                prefijoPendiente = new ArrayList<RegExNode>(primera.subList(0, prefijo));
+                return restos;
+            }
+            return null;
+        }
+
+        /**
+         * Agrega el grupo pendiente con su prefijo comun y la alternacion simplificada de sus restos
+         */
+        private void agregarResto(RegExNode resto) {
+            prefijoPendiente.add(resto);
+            resultados.add(concatenar(prefijoPendiente, 0));
+            prefijoPendiente = null;
+        }
+
+        private RegExNode terminar() {
+            if (clase != null) resultados.set(posicionClase, RegExNode.symbol(SymbolTable.intern(clase)));
+
+            if (resultados.isEmpty()) return RegExNode.epsilon();
+            RegExNode resultado = resultados.get(0);
+            for (int i = 1; i < resultados.size(); i++) resultado = RegExNode.or(resultado, resultados.get(i));
+            return tieneEpsilon ? unario(RegExNode.QMARK, resultado) : resultado;
+        }
+    }
+
+    /**
+     * Devuelve los factores de una concatenacion en orden, sin recursion
+     */
+    private static ArrayList<RegExNode> secuencia(RegExNode nodo) {
+        ArrayList<RegExNode> factores = new ArrayList<RegExNode>();
+        ArrayList<RegExNode> pila = new ArrayList<RegExNode>();
+        pila.add(nodo);
+        while (!pila.isEmpty()) {
+            RegExNode actual = pila.remove(pila.size() - 1);
+            if (actual.getType() == RegExNode.CONCAT) {
+                pila.add(actual.getRight());
+                pila.add(actual.getLeft());
+            } else {
+                factores.add(actual);
+            }
+        }
+        return factores;
+    }
+}
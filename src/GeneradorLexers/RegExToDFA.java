@@ -1,9 +1,14 @@
 package GeneradorLexers;
 
+import javafx.util.Pair;
+
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Stack;
 
 /**
@@ -17,66 +22,154 @@ public class RegExToDFA  implements Serializable {
      * Atributos
      */
     private BinaryTree arbolSintactico;
-    private HashMap<Integer, BinaryTree> leafNodes;
-    private HashSet<String> alfabeto = new HashSet<String>();
-    private Integer posicionAceptacion;
+    private ArrayList<BinaryTree> leafNodes;  // Hoja de cada posicion, la posicion 0 no se usa
+    private BitSet alfabeto = new BitSet();
+    private BitSet posicionesAceptacion = new BitSet();  // Posiciones de los # de fin de cadena
     private int positionCounter;
-    private LinkedList<Dstate<Integer>> dStates = new LinkedList<Dstate<Integer>>();  // Futuros estados del DFA
-    private LinkedList<Dtransition> dTransitions = new LinkedList<Dtransition>();  // Futuras transiciones del DFA
+    private ArrayList<BitSet> dStates = new ArrayList<BitSet>();  // Futuros estados del DFA: conjuntos de posiciones
+    private HashMap<BitSet, Integer> dStatesIndex = new HashMap<BitSet, Integer>();  // Indice de cada conjunto en dStates
+    private ArrayDeque<Integer> dStatesNoMarcados = new ArrayDeque<Integer>();  // Estados del DFA por procesar, en orden
+    private int[] dFrom = new int[16], dTo = new int[16], dSymbol = new int[16];  // Futuras transiciones del DFA
+    private int numDTransitions = 0;
 
     /**
      * Constructor
      */
     public RegExToDFA() {
-        this.leafNodes = new HashMap<Integer, BinaryTree>();
-        posicionAceptacion = 0;
+        this.leafNodes = new ArrayList<BinaryTree>();
+        this.leafNodes.add(null);
     }
 
     /**
      * Metodo que tiene como objetivo guiar el algoritmo de construccion directa del dfa
-     * @param regex expresion regular desde la que se construira el dfa
+     * @param regex expresion regular aumentada (ver augmentateRegex) en postfix, el # sin escape es el fin de cadena
      * @return un automata finito determinista
      */
     public DirectedGraph createDFA(String regex){
-        arbolSintactico = generateSyntaxTree(regex);  // Crear arbol sintacticao
+        return createAugmentedDFA(RegExParser.parsePostfix(regex, true));
+    }
+
+    /**
+     * Construye el dfa de un arbol sintactico, agregandole el fin de cadena #
+     * @param regex raiz del arbol sintactico (ver RegExParser)
+     * @return un automata finito determinista
+     */
+    public DirectedGraph createDFA(RegExNode regex){
+        return createAugmentedDFA(RegExNode.concat(regex, RegExNode.end()));
+    }
+
+    /**
+     * Construye un solo dfa que reconoce varios tokens. Cada regex se aumenta con su propio fin de cadena #, de modo
+     * que el arbol es (r1)#1 | (r2)#2 | ... y un Destado es de aceptacion si contiene algun #i. Como las hojas se
+     * numeran de izquierda a derecha, el # de menor posicion en un Destado es el del token de mayor prioridad, que es
+     * el que se guarda en el estado. Cada regex se simplifica por separado para no mezclar los # de tokens distintos.
+     * @param tokens pares (tipo de token, regex en infix) ordenados de mayor a menor prioridad
+     * @return un automata finito determinista cuyos estados de aceptacion tienen tipo de token y precedencia (la
+     * posicion del token en la lista, desde 1)
+     * @throws IllegalArgumentException si la lista de tokens esta vacia
+     */
+    public DirectedGraph createDFA(List<Pair<String, String>> tokens){
+        if (tokens.isEmpty()) throw new IllegalArgumentException("Error: no hay tokens para construir el dfa");
+        RegExNode arbol = null;
+        for (Pair<String, String> token: tokens){
+            RegExNode aumentado = RegExNode.concat(RegExSimplifier.simplify(RegExParser.parse(token.getValue())), RegExNode.end());
+            arbol = arbol == null ? aumentado : RegExNode.or(arbol, aumentado);
+        }
+        arbolSintactico = generateSyntaxTree(arbol);
+        setPropiedadesArbolSintactico(arbolSintactico);
+        createDTransitions();
+        return generateDFA(tokens);
+    }
+
+    private DirectedGraph createAugmentedDFA(RegExNode regex){
+        arbolSintactico = generateSyntaxTree(RegExSimplifier.simplify(regex));  // Crear arbol sintactico simplificado
         setPropiedadesArbolSintactico(arbolSintactico);  // Configura firstPos, lastPos y nullable
         createDTransitions();
-        return generateDFA();
+        return generateDFA(null);
+    }
+
+    /**
+     * Construye el automata de posiciones (Glushkov) de un arbol sintactico, un NFA sin transiciones epsilon con
+     * exactamente n + 1 estados, donde n es la cantidad de hojas con simbolo del arbol simplificado. El estado 0 es el
+     * inicial y el estado i corresponde a la posicion i; toda transicion que llega a la posicion q tiene el simbolo
+     * de q. Se usan los mismos firstPos, lastPos, nullable y followPos de la construccion directa, sin el # final:
+     * 0 va a cada posicion de firstPos(raiz), p va a cada posicion de followPos(p), y aceptan las posiciones de
+     * lastPos(raiz), mas el estado 0 si la expresion acepta la cadena vacia.
+     * Al no tener epsilon, Simulator y NFAToDFA no calculan e-closures sobre este automata.
+     * Cada instancia de RegExToDFA construye un solo automata.
+     * @param regex raiz del arbol sintactico (ver RegExParser)
+     * @return NFA compacto sin transiciones epsilon
+     */
+    public FrozenAutomaton createGlushkovNFA(RegExNode regex){
+        arbolSintactico = generateSyntaxTree(RegExSimplifier.simplify(regex));
+        setPropiedadesArbolSintactico(arbolSintactico);
+
+        // Contar transiciones para reservar los arreglos una sola vez
+        int n = positionCounter + 1;
+        BitSet iniciales = arbolSintactico.getFirstPos();
+        int numEdges = iniciales.cardinality();
+        for (int p = 1; p < n; p++) numEdges += leafNodes.get(p).getFollowPos().cardinality();
+        int[] from = new int[numEdges], to = new int[numEdges], symbol = new int[numEdges];
+
+        // Transiciones desde el inicial y entre posiciones, con el simbolo de la posicion destino
+        int e = 0;
+        for (int posicion = iniciales.nextSetBit(0); posicion >= 0; posicion = iniciales.nextSetBit(posicion + 1)) {
+            from[e] = 0;
+            to[e] = posicion;
+            symbol[e++] = leafNodes.get(posicion).getSymbol();
+        }
+        for (int p = 1; p < n; p++) {
+            BitSet siguientes = leafNodes.get(p).getFollowPos();
+            for (int posicion = siguientes.nextSetBit(0); posicion >= 0; posicion = siguientes.nextSetBit(posicion + 1)) {
+                from[e] = p;
+                to[e] = posicion;
+                symbol[e++] = leafNodes.get(posicion).getSymbol();
+            }
+        }
+
+        BitSet aceptacion = (BitSet) arbolSintactico.getLastPos().clone();
+        if (arbolSintactico.isNullable()) aceptacion.set(0);
+        int[] stateIds = new int[n];
+        for (int s = 0; s < n; s++) stateIds[s] = s;
+        return FrozenAutomaton.build(n, from, to, symbol, numEdges, (BitSet) alfabeto.clone(), 0, aceptacion,
+                new int[n], new String[n], stateIds);
     }
 
 
     /**
      * Metodo que tiene como objetivo construir el dfa utilizando las propiedades calculadas anteriormente
+     * @param tokens tokens del dfa de varios tokens, en el orden de sus #, o null si hay un solo regex
      * @return un dfa
      */
-    private DirectedGraph generateDFA() {
+    private DirectedGraph generateDFA(List<Pair<String, String>> tokens) {
         DirectedGraph dfa = new DirectedGraph();
         dfa.setAlphabet(alfabeto);
-        int contador = 0;
-        HashMap<Dstate<Integer>, Integer> convertDstateToState = new HashMap<Dstate<Integer>, Integer>(dStates.size(), (float) 1.0);
 
-        // Crear nodo con cada dstate
-        for (Dstate<Integer> dstate: dStates){
-            // Agregar nuevo nodo a dfa
-            dfa.addNode(dfa, contador, dstate.isdStateInitial(), dstate.isdStateFinal());
-
-            // Guardar equivalente en mapa
-            convertDstateToState.put(dstate, contador);
+        // Indice del token de cada # de fin de cadena
+        HashMap<Integer, Integer> tokenDePosicion = new HashMap<Integer, Integer>();
+        int indice = 0;
+        for (int posicion = posicionesAceptacion.nextSetBit(0); posicion >= 0; posicion = posicionesAceptacion.nextSetBit(posicion + 1)){
+            tokenDePosicion.put(posicion, indice++);
+        }
 
-            // Aumentar contador
-            contador++;
+        // Crear nodo con cada dstate, el ID es su indice en dStates
+        for (int contador = 0; contador < dStates.size(); contador++){
+            BitSet fines = (BitSet) dStates.get(contador).clone();
+            fines.and(posicionesAceptacion);
+            int fin = fines.nextSetBit(0);  // Primer # del conjunto: el del token de mayor prioridad
+            dfa.addNode(dfa, contador, contador == 0, fin >= 0);
+
+            if (fin >= 0 && tokens != null){
+                int token = tokenDePosicion.get(fin);
+                DirectedGraph.NodeClass nodo = dfa.getParticularNode(contador);
+                nodo.setPrecedence(token + 1);
+                nodo.setTokenType(tokens.get(token).getKey());
+            }
         }
 
         // Agregar las transiciones
-        for (Dtransition dtransition: dTransitions){
-            // Obtener nodo inicial de transicion
-            int nodoInicial = convertDstateToState.get(dtransition.getStartingState());
-
-            // Obtener nodo final de transicion
-            int nodoFinal = convertDstateToState.get(dtransition.getFinishingState());
-
-            // Crear nueva transicion
-            dfa.addEdges(dfa, dfa.getParticularNode(nodoInicial), dfa.getParticularNode(nodoFinal), dtransition.getTransition());
+        for (int t = 0; t < numDTransitions; t++){
+            dfa.addEdges(dfa, dfa.getParticularNode(dFrom[t]), dfa.getParticularNode(dTo[t]), dSymbol[t]);
         }
 
         return dfa;
@@ -84,125 +177,96 @@ public class RegExToDFA  implements Serializable {
 
 
     /**
-     * Metodo que tiene como objetivo crear las DTransiciones y DEstados del automata
+     * Metodo que tiene como objetivo crear las DTransiciones y DEstados del automata. Cada Destado es el conjunto de
+     * posiciones como BitSet, por lo que las uniones de followPos son operaciones por palabras de 64 bits. Los
+     * conjuntos se buscan en un HashMap y los estados sin marcar se procesan en una cola, asi cada estado nuevo cuesta
+     * O(1) esperado en lugar de recorrer la lista de Destados.
      */
     private void createDTransitions() {
         // Crear Destado inicial con firstpos(raiz)
-        HashSet<Integer> posicionesIniciales = arbolSintactico.getFirstPos();
-        boolean isFinal = posicionesIniciales.contains(posicionAceptacion);
-        Dstate<Integer> dEstadoInicial = new Dstate<Integer>(posicionesIniciales, true, isFinal);
-        Dstate<Integer> estadoTemporalAgregado;
-
-        // Agregar Destado a conjunto de Destados
-        dStates.add(dEstadoInicial);
+        getDstate((BitSet) arbolSintactico.getFirstPos().clone());
 
-        // Obtener alphabeto de nfa
-        HashSet<String> alphabeto = alfabeto;
-
-        // Crear variable de estado no marcado
-        Dstate<Integer> unmarkedState = dEstadoInicial;
+        // Obtener los atomos del alfabeto, cada uno sera una entrada del dfa
+        CharClassifier atomos = new CharClassifier(alfabeto);
+        BitSet alfabetoDFA = new BitSet();
+        for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+            alfabetoDFA.set(atomos.getAtomSymbol(atomo));
+        }
+        alfabeto = alfabetoDFA;
 
         // Crear resto de Destados
-        while (unmarkedState != null){
-            // Marcar estado inicial
-            unmarkedState.setMarked(true);
-
-            // Procesar cada entrada del alfabeto y su resultado
-            for (String input: alphabeto){
-                // Obtener el conjunto de estados que se alcanzan con cierta entrada
-                HashSet<Integer> conjuntoEstadosAlcanzados = moveT(unmarkedState.getConjuntoEstados(), input);
-
-                // Ver si contiene la posicion de aceptacion el conjunto nuevo
-                isFinal = conjuntoEstadosAlcanzados.contains(posicionAceptacion);
+        while (!dStatesNoMarcados.isEmpty()){
+            // Marcar el siguiente estado
+            int unmarkedState = dStatesNoMarcados.poll();
+            BitSet conjuntoEstados = dStates.get(unmarkedState);
 
-                // Crear GeneradorLexers.Dstate que se podria agregar
-                estadoTemporalAgregado = new Dstate<Integer>(conjuntoEstadosAlcanzados, false, isFinal);
+            // Procesar cada atomo del alfabeto y su resultado
+            for (int atomo = 0; atomo < atomos.getNumAtoms(); atomo++){
+                int input = atomos.getAtomSymbol(atomo);
 
-                // Verificar que estadoTemporalAgregado no exista en Destados
-                Dstate<Integer> estadoTemporalEsUnico = getUniqueDstate(estadoTemporalAgregado);
-
-                // Agregar estadoTemporalAgregado si no existe
-                if (estadoTemporalEsUnico == null){
-                    dStates.add(estadoTemporalAgregado);
-
-                    // Crear Dtransicion para el estado creado
-                    addDtransition(unmarkedState, estadoTemporalAgregado, input);
-                }
+                // Obtener el conjunto de estados que se alcanzan con cierta entrada
+                BitSet conjuntoEstadosAlcanzados = moveT(conjuntoEstados, atomos.getMembers(atomo));
 
-                // Agregar transicion a estado existente
-                else {
-                    addDtransition(unmarkedState, estadoTemporalEsUnico, input);
-                }
+                // Crear Dtransicion hacia el estado, agregandolo si no existe
+                addDtransition(unmarkedState, getDstate(conjuntoEstadosAlcanzados), input);
             }
-
-            // Actualizar unmarkedState
-            unmarkedState = existUnmarkedDstate();
         }
     }
 
     /**
-     * Indica si existen estados sin marcar en el conjunto de estados del dfa
-     * @return verdadero: si existen estados sin marcar; falso, si ya estan marcados todos los estados
-     */
-    private Dstate<Integer> existUnmarkedDstate(){
-        for (Dstate<Integer> dEstado: dStates){
-            if (!dEstado.isMarked()){
-                return dEstado;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Se utiliza para crear una nueva dTransicion y anadirla al Destado
-     * @param finishingState Estado al que se llega con la transicion
+     * Se utiliza para crear una nueva dTransicion
      * @param startingState Estado desde el que se inicia
+     * @param finishingState Estado al que se llega con la transicion
      * @param transition Transicion que provoca el cambio
      */
-    private void addDtransition(Dstate<Integer> startingState, Dstate<Integer> finishingState, String transition){
-        Dtransition nuevaTransicion = new Dtransition(finishingState, startingState, transition);
-        dTransitions.add(nuevaTransicion);
-        startingState.addTransitions(nuevaTransicion);
+    private void addDtransition(int startingState, int finishingState, int transition){
+        if (numDTransitions == dFrom.length){
+            dFrom = Arrays.copyOf(dFrom, numDTransitions * 2);
+            dTo = Arrays.copyOf(dTo, numDTransitions * 2);
+            dSymbol = Arrays.copyOf(dSymbol, numDTransitions * 2);
+        }
+        dFrom[numDTransitions] = startingState;
+        dTo[numDTransitions] = finishingState;
+        dSymbol[numDTransitions] = transition;
+        numDTransitions++;
     }
 
 
     /**
-     * Verifica si un estado ya exite en Dstates, si ya existe, devuelve dicho estado
-     * @param estadoTemporalAgregado estado a analizar
-     * @return null, si no existe; dstate si existe
+     * Busca un conjunto de posiciones en Dstates y, si no existe, lo agrega como estado sin marcar
+     * @param conjuntoEstados conjunto a analizar, no se debe modificar despues
+     * @return el indice del dstate
      */
-    private Dstate<Integer> getUniqueDstate(Dstate<Integer> estadoTemporalAgregado) {
-        for (Dstate<Integer> dstate2: dStates){
-            // Si ya existe el estado, devolver dicho estado
-            if (dstate2.equals(estadoTemporalAgregado)){
-                return dstate2;
-            }
+    private int getDstate(BitSet conjuntoEstados) {
+        Integer dstate = dStatesIndex.get(conjuntoEstados);
+        if (dstate == null){
+            dstate = dStates.size();
+            dStates.add(conjuntoEstados);
+            dStatesIndex.put(conjuntoEstados, dstate);
+            dStatesNoMarcados.add(dstate);
         }
-
-        // Si no existe estado, devolver el estado ingresado
-        return null;
+        return dstate;
     }
 
     /**
      * Metodo que tiene como objetivo obtener el conjunto destino de un conjunto dado un input
      * @param conjuntoEstados es el conjunto desde el que se parte
-     * @param input es la entrada del alfabeto
+     * @param input son los simbolos de las hojas que aceptan la entrada (los que contienen al atomo)
      * @return un conjunto de estados destino
      */
-    private HashSet<Integer> moveT(HashSet<Integer> conjuntoEstados, String input) {
+    private BitSet moveT(BitSet conjuntoEstados, int[] input) {
         // Conjunto resultado
-        HashSet<Integer> resultado = new HashSet<Integer>();
+        BitSet resultado = new BitSet(positionCounter + 1);
         BinaryTree nodoTemporal;
 
-        // Ver cuales elementos corresponden al input y obtener su followPos
-        for (Integer posicion: conjuntoEstados) {
+        // Ver cuales elementos corresponden al input y unir su followPos
+        for (int posicion = conjuntoEstados.nextSetBit(0); posicion >= 0; posicion = conjuntoEstados.nextSetBit(posicion + 1)) {
             // Obtener el correspondiente nodo
             nodoTemporal = leafNodes.get(posicion);
-            String valorNodo = nodoTemporal.getValue();
 
             // Si corresponde, agregar el siguientePos al conjunto resultado
-            if (valorNodo.equals(input)){
-                resultado.addAll(nodoTemporal.getFollowPos());
+            if (Arrays.binarySearch(input, nodoTemporal.getSymbol()) >= 0){
+                resultado.or(nodoTemporal.getFollowPos());
             }
         }
 
@@ -211,31 +275,37 @@ public class RegExToDFA  implements Serializable {
 
 
     /**
-     * Metodo que tiene como objetivo setear lastpos, followPos, firstpos y nullable de las propiedades del arbol sintactico
+     * Metodo que tiene como objetivo setear lastpos, followPos, firstpos y nullable de las propiedades del arbol
+     * sintactico. Los nodos se procesan en postorden con una pila explicita, asi cada nodo se evalua despues de sus
+     * hijos sin recursion y un arbol de cualquier profundidad cabe en la pila normal de un hilo.
      */
     private void setPropiedadesArbolSintactico(BinaryTree tree) {
+        for (BinaryTree nodo: tree.postOrder()) {
+            setPropiedadesNodo(nodo);
+        }
+    }
+
+    /**
+     * Setea las propiedades de un nodo cuyos hijos ya tienen las suyas
+     */
+    private void setPropiedadesNodo(BinaryTree tree) {
         if (tree.isLeaf()) {
-            if (!tree.getValue().equals("!")){
+            if (tree.getSymbol() != SymbolTable.EPSILON){
                 // FirstPos y LastPos
-                HashSet<Integer> firstPos = new HashSet<Integer>();
-                HashSet<Integer> lastPos = new HashSet<Integer>();
                 int position = tree.getPosition();
-                firstPos.add(position);
-                lastPos.add(position);
-                tree.setFirstPos(firstPos);
-                tree.setLastPos(lastPos);
+                tree.getFirstPos().set(position);
+                tree.getLastPos().set(position);
 
                 // nullable
                 tree.setNullable(false);
 
-                // Ver si es estado de aceptacion
-                if (tree.getValue().equals("#")){
-                    posicionAceptacion = position;
+                // Ver si es estado de aceptacion (el # del final no tiene simbolo)
+                if (tree.getSymbol() < 0){
+                    posicionesAceptacion.set(position);
                 }
             } else {
-                tree.setFirstPos(new HashSet<Integer>());
-                tree.setLastPos(new HashSet<Integer>());
-                tree.setNullable(false);
+                // Epsilon no tiene posiciones y acepta la cadena vacia
+                tree.setNullable(true);
             }
         }
         else {
@@ -244,29 +314,21 @@ public class RegExToDFA  implements Serializable {
             BinaryTree leftChild = tree.getLeftChild();
             BinaryTree rightChild = tree.getRightChild();
 
-            // Setear propiedades recursivamente
-            if (leftChild != null) {
-                setPropiedadesArbolSintactico(leftChild);
-            }
-            if (rightChild != null) {
-                setPropiedadesArbolSintactico(rightChild);
-            }
-
-
-            HashSet<Integer> firstPos = new HashSet<Integer>();
-            HashSet<Integer> lastPos = new HashSet<Integer>();
+            // Los conjuntos del nodo empiezan vacios, las uniones son or de BitSets
+            BitSet firstPos = tree.getFirstPos();
+            BitSet lastPos = tree.getLastPos();
             boolean nullable = false;
 
             // Posibilidades de operacion
             switch (root.charAt(0)){
                 case '|':
                     // FirstPos
-                    firstPos.addAll(rightChild.getFirstPos());
-                    firstPos.addAll(leftChild.getFirstPos());
+                    firstPos.or(rightChild.getFirstPos());
+                    firstPos.or(leftChild.getFirstPos());
 
                     // LastPos
-                    lastPos.addAll(rightChild.getLastPos());
-                    lastPos.addAll(leftChild.getLastPos());
+                    lastPos.or(rightChild.getLastPos());
+                    lastPos.or(leftChild.getLastPos());
 
                     // Nullable
                     nullable = rightChild.isNullable() || leftChild.isNullable();
@@ -274,135 +336,113 @@ public class RegExToDFA  implements Serializable {
 
                 case '.':
                     // FirstPos
+                    firstPos.or(leftChild.getFirstPos());
                     if (leftChild.isNullable()){
                         // Union de los dos
-                        firstPos.addAll(rightChild.getFirstPos());
-                        firstPos.addAll(leftChild.getFirstPos());
-                    } else {
-                        firstPos.addAll(leftChild.getFirstPos());
+                        firstPos.or(rightChild.getFirstPos());
                     }
 
 
                     // LastPos
+                    lastPos.or(rightChild.getLastPos());
                     if (rightChild.isNullable()){
                         // Union de los dos
-                        lastPos.addAll(rightChild.getLastPos());
-                        lastPos.addAll(leftChild.getLastPos());
-                    } else {
-                        lastPos.addAll(rightChild.getLastPos());
+                        lastPos.or(leftChild.getLastPos());
                     }
 
                     // Nullable
                     nullable = rightChild.isNullable() && leftChild.isNullable();
 
                     // Set FollowPos
-                    HashSet<Integer> leftChildLastPos = leftChild.getLastPos();
-                    HashSet<Integer> rightChildFirstPos = rightChild.getFirstPos();
-                    BinaryTree nodoSignificativo;
-
-                    for (Integer position: leftChildLastPos){
-                        // Obtener nodo significativo
-                        nodoSignificativo = leafNodes.get(position);
-                        nodoSignificativo.setFollowPos(rightChildFirstPos);
+                    BitSet leftChildLastPos = leftChild.getLastPos();
+                    BitSet rightChildFirstPos = rightChild.getFirstPos();
+
+                    for (int position = leftChildLastPos.nextSetBit(0); position >= 0; position = leftChildLastPos.nextSetBit(position + 1)){
+                        // Agregar posiciones al nodo significativo
+                        leafNodes.get(position).setFollowPos(rightChildFirstPos);
                     }
 
                     break;
 
                 case '*':
+                case '+':
                     // FirstPos
-                    firstPos.addAll(leftChild.getFirstPos());
+                    firstPos.or(leftChild.getFirstPos());
 
                     // LastPos
-                    lastPos.addAll(leftChild.getLastPos());
+                    lastPos.or(leftChild.getLastPos());
 
-                    // Nullable
-                    nullable = true;
+                    // Nullable (a+ solo es nullable si a lo es)
+                    nullable = root.charAt(0) == '*' || leftChild.isNullable();
 
                     // Set FollowPos
-                    HashSet<Integer> childLastPos = leftChild.getLastPos();
-                    HashSet<Integer> childFirstPos = leftChild.getFirstPos();
-                    BinaryTree nodoSignificative;
-
-                    for (Integer position: childLastPos){
-                        // Obtener nodo significativo
-                        nodoSignificative = leafNodes.get(position);
+                    BitSet childLastPos = leftChild.getLastPos();
+                    BitSet childFirstPos = leftChild.getFirstPos();
 
-                        // Agregar posiciones
-                        nodoSignificative.setFollowPos(childFirstPos);
+                    for (int position = childLastPos.nextSetBit(0); position >= 0; position = childLastPos.nextSetBit(position + 1)){
+                        // Agregar posiciones al nodo significativo
+                        leafNodes.get(position).setFollowPos(childFirstPos);
                     }
                     break;
+
+                case '?':
+                    // Igual que el hijo, pero nullable y sin followPos nuevos
+                    firstPos.or(leftChild.getFirstPos());
+                    lastPos.or(leftChild.getLastPos());
+                    nullable = true;
+                    break;
             }
 
-            tree.setFirstPos(firstPos);
-            tree.setLastPos(lastPos);
             tree.setNullable(nullable);
         }
     }
 
     /**
-     * Metodo que tiene como objetivo generar un arbol sintactico a partir de un regex en postfix
-     * @param regex expresion regular a utilizarse para generar arbol
+     * Metodo que tiene como objetivo generar el arbol de posiciones a partir del arbol sintactico del regex. Las hojas
+     * se numeran de izquierda a derecha.
+     * @param regex arbol sintactico aumentado con el fin de cadena
      * @return un arbol sintactico
      */
-    private BinaryTree generateSyntaxTree(String regex) {
+    private BinaryTree generateSyntaxTree(RegExNode regex) {
         Stack<BinaryTree> stack = new Stack<BinaryTree>();
         BinaryTree op1, op2, result;
-        HashSet<String> alphabet = new HashSet<String>();
-
-        // Se modifico esta clase para poder soportar metacaracteres
-        boolean ingresaronCaracterEscape =  false;
-        for (int i = 0; i < regex.length(); i++) {
-            char c = regex.charAt(i);
-
-            // Verificar si ingresaron un caracter de escape
-            ingresaronCaracterEscape = c == '\\';
+        BitSet alphabet = new BitSet();
 
-            // Si no ingresaron un caracter de escape se hace toki normal
-            if (!ingresaronCaracterEscape){
-                if (RegExToNFA.isTwoOperator(c)) {
+        for (RegExNode nodo: regex.postOrder()) {
+            switch (nodo.getType()) {
+                case RegExNode.EPSILON:
+                    result = new BinaryTree(SymbolTable.EPSILON_LABEL);
+                    result.setSymbol(SymbolTable.EPSILON);
+                    stack.push(result);
+                    break;
+                case RegExNode.SYMBOL:
+                case RegExNode.END:
+                    // Hoja con posicion, el # del final no tiene simbolo
+                    result = new BinaryTree(nodo.getType() == RegExNode.END ? "#" : SymbolTable.label(nodo.getSymbol()));
+                    if (nodo.getType() == RegExNode.SYMBOL) {
+                        result.setSymbol(nodo.getSymbol());
+                        alphabet.set(nodo.getSymbol());
+                    }
+                    int posicion = getPositionCounter();
+                    result.setPosition(posicion);  // Setear posicion en arbol
+                    leafNodes.add(result);  // Agregar a lista de nodos, en el indice de su posicion
+                    stack.push(result);
+                    break;
+                case RegExNode.CONCAT:
+                case RegExNode.OR:
                     op2 = stack.pop();
                     op1 = stack.pop();
-                    stack.push(new BinaryTree(String.valueOf(c), op1, op2));
-                } else if (RegExToNFA.isOneOperator(c)) {
+                    stack.push(new BinaryTree(nodo.getType() == RegExNode.CONCAT ? "." : "|", op1, op2));
+                    break;
+                default:
                     op1 = stack.pop();
-                    stack.push(new BinaryTree(String.valueOf(c), op1, null));
-                } else {
-                    String letra = String.valueOf(c);
-                    result = new BinaryTree(letra);  // Crear nodo hoja
-                    if (!letra.equals("!")) {
-                        int posicion = getPositionCounter();
-                        result.setPosition(posicion);  // Setear posicion en arbol
-                        leafNodes.put(posicion, result);  // Agregar a mapa de nodos
-                    }
-
-                    if (!letra.equals("!") && !letra.equals("#")){
-                        alphabet.add(letra);  // Agregar letra a alfabeto
-                    }
-
-                    stack.push(result);
-                }
-
-            // Pero si ingresaron caracter especial, saltarse el paso para reconocerlo como de alfabeto
-            } else {
-                // Moverse al siguiente caracter
-                i++;
-                c = regex.charAt(i);
-
-                String letra = String.valueOf(c);
-                result = new BinaryTree(letra);  // Crear nodo hoja
-
-                int posicion = getPositionCounter();
-                result.setPosition(posicion);  // Setear posicion en arbol
-                leafNodes.put(posicion, result);  // Agregar a mapa de nodos
-                alphabet.add(letra);  // Agregar letra a alfabeto
-
-                stack.push(result);
+                    String operador = nodo.getType() == RegExNode.STAR ? "*" : nodo.getType() == RegExNode.PLUS ? "+" : "?";
+                    stack.push(new BinaryTree(operador, op1, null));
             }
         }
 
-        result = stack.pop();
         alfabeto = alphabet;
-        return result;
+        return stack.pop();
     }
 
 
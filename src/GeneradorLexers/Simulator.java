@@ -3,6 +3,7 @@ package GeneradorLexers;
 import javafx.util.Pair;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Stack;
 
@@ -42,7 +43,7 @@ public class Simulator  implements Serializable {
             char c = expr.charAt(i);
 
             // Moverse hacia siguiente conjunto de estados
-            currentStates = nfaToDFA.moveT(currentStates, String.valueOf(c));
+            currentStates = nfaToDFA.moveT(currentStates, nfa.getSymbolsFor(c));
         }
 
         return currentStates.contains(nodoFinal);
@@ -82,7 +83,7 @@ public class Simulator  implements Serializable {
                 c = programa.charAt(i);
 
                 // Moverse hacia siguiente conjunto de estados
-                currentStates = nfaToDFA.moveT(currentStates, String.valueOf(c));
+                currentStates = nfaToDFA.moveT(currentStates, nfa.getSymbolsFor(c));
             } else {
                 i++;
                 break;
@@ -104,7 +105,7 @@ public class Simulator  implements Serializable {
 
 
                 // Si aun no ha terminado de leer el programa, buscar un whitespace
-                currentStates = nfaToDFA.moveT(nfaToDFA.getEClosure(nodoInicial), String.valueOf(c));
+                currentStates = nfaToDFA.moveT(nfaToDFA.getEClosure(nodoInicial), nfa.getSymbolsFor(c));
                 accNode2 = getAcceptanceNode(currentStates);
 
                 if (accNode2 != null){
@@ -140,6 +141,71 @@ public class Simulator  implements Serializable {
         return estadoFinal;
     }
 
+    /**
+     * Reconoce un token con un DFA perezoso. Sigue las mismas reglas que simulateNFARecognizor, pero no guarda un
+     * historial de conjuntos y cada paso sigue una transicion ya construida en lugar de calcular el conjunto de estados
+     * siguiente, por lo que varios hilos pueden usar el mismo DFA.
+     * @param automata es el DFA perezoso del automata reconocedor de tokens, se puede compartir entre hilos
+     * @param programa es el string del programa completo que se utilizara para encontrar tokens
+     * @param inicioLexema indica el inicio del lexema a encontrar
+     * @return devuelve un par, siendo el primer valor el final del lexema y el otro el tipo de token (null si no se
+     * reconocio ninguno)
+     */
+    public Pair<Integer, String> recognizeToken(LazyDFA automata, String programa, int inicioLexema){
+        int i = inicioLexema;
+
+        // Avanzar mientras el estado no sea el muerto, recordando el ultimo que no lo era
+        LazyDFA.State currentState = automata.getStartState();
+        LazyDFA.State previousState = currentState;
+        while (!currentState.isDead()) {
+            previousState = currentState;
+            if (i < programa.length()){
+                currentState = automata.step(currentState, programa.charAt(i));
+            } else {
+                i++;
+                break;
+            }
+            i++;
+        }
+
+        // Verificar el ultimo estado que no era el muerto
+        i -= 2; // Regresar a final de lexema
+        if (!previousState.isAccept()) return new Pair<Integer, String>(i, null);
+        String tokenType = automata.getTokenType(previousState);
+
+        // Verificar si despues existe un whitespace o el fin de la entrada
+        if (i + 1 < programa.length() && !tokenType.equals("whitespace")) {
+            LazyDFA.State siguiente = automata.step(automata.getStartState(), programa.charAt(i + 1));
+
+            if (siguiente.isAccept()){
+                if (!automata.getTokenType(siguiente).equals("whitespace")){
+                    System.err.println("Error: Despues de " + tokenType + " se esperaba whitespace, no " + automata.getTokenType(siguiente) + ".");
+                    return new Pair<Integer, String>(i + 1, null);
+                }
+            } else {
+                System.err.println("Error: Despues de " + tokenType + " se encontró un token no identificado.");
+                return new Pair<Integer, String>(i + 1, null);
+            }
+        }
+        return new Pair<Integer, String>(i, tokenType);
+    }
+
+    /**
+     * Simula un automata compilado por medio de su DFA perezoso: los conjuntos de estados se construyen la primera vez
+     * que la entrada llega a ellos y las siguientes cadenas reutilizan las transiciones. Da el mismo resultado que
+     * simulateNFA con el DirectedGraph, tambien para automatas de una expresion regular sin tipos de token.
+     * @param automata DFA perezoso del automata (ver DirectedGraph.compile)
+     * @param expr cadena a reconocer
+     * @return verdadero si la cadena es aceptada
+     */
+    public boolean simulateNFA(LazyDFA automata, String expr){
+        LazyDFA.State currentState = automata.getStartState();
+        for (int i = 0; i < expr.length() && !currentState.isDead(); i++) {
+            currentState = automata.step(currentState, expr.charAt(i));
+        }
+        return currentState.isAccept();
+    }
+
 
     // Tiene el nfaToDFA ya hecho con eclosure
     public boolean simulateNFA(DirectedGraph nfa, String expr, NFAToDFA nfaToDFA){
@@ -155,7 +221,7 @@ public class Simulator  implements Serializable {
             char c = expr.charAt(i);
 
             // Moverse hacia siguiente conjunto de estados
-            currentStates = nfaToDFA.moveT(currentStates, String.valueOf(c));
+            currentStates = nfaToDFA.moveT(currentStates, nfa.getSymbolsFor(c));
         }
 
         return currentStates.contains(nodoFinal);
@@ -171,17 +237,14 @@ public class Simulator  implements Serializable {
         // Fijar estado inicial
         DirectedGraph.NodeClass currentState = nodoInicial;
 
-        // Obtener alfabeto
-        HashSet<String> alphabet = dfa.getAlphabet();
-
         // Recorrer automata
         for (int i = 0; i < expr.length(); i++) {
-            char c = expr.charAt(i);
-            String letra = String.valueOf(c);
+            // Los simbolos de un dfa son disjuntos: a lo sumo uno contiene al caracter
+            int[] letra = dfa.getSymbolsFor(expr.charAt(i));
 
-            if (alphabet.contains(letra)){
+            if (letra.length > 0){
                 // Moverse hacia siguiente conjunto de estados
-                currentState = move(currentState, letra);
+                currentState = move(currentState, letra[0]);
             }
 
             else return false;
@@ -190,15 +253,59 @@ public class Simulator  implements Serializable {
         return currentState.isFinal();
     }
 
-    private DirectedGraph.NodeClass move(DirectedGraph.NodeClass nodo, String symbol){
-        // Analizar cada una de las transiciones del estado
-        for (DirectedGraph.edgeContents transicion: nodo.edges) {
-            // Si una transicion es igual a el simbolo, retornar estado
-            if (transicion.getTransition().equals(symbol)){
-                return transicion.getFinishingNode();
-            }
+    /**
+     * Simula un DFA compacto. No crea objetos por caracter: cada paso es una busqueda en la fila del estado actual.
+     * @param dfa automata determinista compacto
+     * @param expr cadena a reconocer
+     * @return verdadero si la cadena es aceptada
+     */
+    public boolean simulateDFA(FrozenAutomaton dfa, String expr){
+        int currentState = dfa.getStartState();
+
+        // Recorrer automata
+        for (int i = 0; i < expr.length(); i++) {
+            int[] symbol = dfa.getSymbolsFor(expr.charAt(i));
+            if (symbol.length == 0) return false;
+
+            // Moverse al siguiente estado
+            currentState = dfa.step(currentState, symbol[0]);
+            if (currentState < 0) return false;
+        }
+
+        return dfa.isAccept(currentState);
+    }
+
+    /**
+     * Simula un NFA compacto manteniendo el conjunto de estados actuales en un BitSet. Con un NFA sin epsilon (ver
+     * RegExToDFA.createGlushkovNFA) el e-closure no hace nada y cada paso es solo el movimiento por simbolo.
+     * @param nfa automata no determinista compacto
+     * @param expr cadena a reconocer
+     * @return verdadero si la cadena es aceptada
+     */
+    public boolean simulateNFA(FrozenAutomaton nfa, String expr){
+        // Obtener conjunto de estados iniciales
+        BitSet currentStates = new BitSet(nfa.getNumStates());
+        currentStates.set(nfa.getStartState());
+        nfa.eClosure(currentStates);
+
+        for (int i = 0; i < expr.length() && !currentStates.isEmpty(); i++) {
+            int[] symbols = nfa.getSymbolsFor(expr.charAt(i));
+            if (symbols.length == 0) return false;
+
+            // Moverse hacia siguiente conjunto de estados con todos los simbolos que contienen al caracter
+            BitSet siguientes = nfa.move(currentStates, symbols[0]);
+            for (int k = 1; k < symbols.length; k++) siguientes.or(nfa.move(currentStates, symbols[k]));
+            currentStates = nfa.eClosure(siguientes);
         }
 
-        return null;
+        for (int s = currentStates.nextSetBit(0); s >= 0; s = currentStates.nextSetBit(s + 1)) {
+            if (nfa.isAccept(s)) return true;
+        }
+        return false;
+    }
+
+    private DirectedGraph.NodeClass move(DirectedGraph.NodeClass nodo, int symbol){
+        // Buscar en el indice del estado la primera transicion con el simbolo
+        return nodo.getTarget(symbol);
     }
 }
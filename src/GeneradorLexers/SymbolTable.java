@@ -0,0 +1,238 @@
+package GeneradorLexers;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * La presente clase tiene como objetivo asignar un entero denso a cada etiqueta de transicion, incluyendo la etiqueta
+ * epsilon "!". Todos los automatas comparten la misma tabla, por lo que un simbolo significa lo mismo en cualquier
+ * grafo del proceso. Los identificadores no son estables entre ejecuciones: al guardar un automata en disco se deben
+ * guardar las etiquetas, no los enteros.
+ * Cada simbolo distinto de epsilon representa un {@link CharSet}: las etiquetas de un caracter son el conjunto de ese
+ * caracter y las demas se crean con {@link #intern(CharSet)}, con etiqueta como "[a-z]".
+ * La tabla solo crece, salvo que se use un {@link Scope}: al cerrarlo se liberan los simbolos creados desde que se
+ * abrio, por ejemplo al terminar de generar el lexer de una especificacion. Los automatas y arboles creados dentro
+ * del alcance ya no se deben usar despues de cerrarlo; RegExCache descarta solo sus entradas afectadas.
+ * @author Eric Mendoza
+ * @version 1.0
+ * @since 18/10/2026
+ */
+public final class SymbolTable {
+    /**
+     * Simbolo reservado para epsilon
+     */
+    public static final int EPSILON = 0;
+    public static final String EPSILON_LABEL = "!";
+    public static final String LITERAL_EPSILON_LABEL = "\\!";  // El caracter '!' como simbolo, no como epsilon
+
+    /**
+     * Atributos
+     */
+    private static final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+    private static final AtomicIntegerArray charIds = new AtomicIntegerArray(Character.MAX_VALUE + 1);  // Caracter -> simbolo
+    private static volatile String[] labels = new String[64];
+    private static volatile CharSet[] sets = new CharSet[64];  // Conjunto de caracteres de cada simbolo
+    private static volatile int size = 0;
+    private static final ArrayList<Integer> releaseMarks = new ArrayList<Integer>();  // Marca de cada liberacion, en orden
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            charIds.lazySet(c, -1);
+        }
+        intern(EPSILON_LABEL);
+    }
+
+    private SymbolTable() {}
+
+    /**
+     * Devuelve el simbolo de una etiqueta, creandolo si no existe
+     * @param label etiqueta de la transicion
+     * @return entero que identifica a la etiqueta
+     */
+    public static synchronized int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) return id;
+
+        CharSet conjunto = null;
+        if (label.equals(LITERAL_EPSILON_LABEL)) conjunto = CharSet.of('!');
+        else if (label.length() == 1 && !label.equals(EPSILON_LABEL)) conjunto = CharSet.of(label.charAt(0));
+        return create(label, conjunto);
+    }
+
+    /**
+     * Devuelve el simbolo de un conjunto de caracteres, creandolo si no existe. Un conjunto de un solo caracter
+     * comparte simbolo con la etiqueta de ese caracter.
+     * @param set conjunto de caracteres de la transicion
+     * @return entero que identifica al conjunto
+     */
+    public static synchronized int intern(CharSet set) {
+        String label;
+        if (!set.isSingleChar()) label = set.toString();
+        else if (set.getRangeStart(0) == '!') label = LITERAL_EPSILON_LABEL;
+        else label = String.valueOf((char) set.getRangeStart(0));
+
+        Integer id = ids.get(label);
+        if (id != null) return id;
+        return create(label, set);
+    }
+
+    private static int create(String label, CharSet set) {
+        // Crear simbolo nuevo
+        int nuevo = size;
+        String[] actuales = labels;
+        CharSet[] conjuntos = sets;
+        if (nuevo == actuales.length) {
+            actuales = Arrays.copyOf(actuales, nuevo * 2);
+            conjuntos = Arrays.copyOf(conjuntos, nuevo * 2);
+        }
+        actuales[nuevo] = label;
+        conjuntos[nuevo] = set;
+        ids.put(label, nuevo);
+
+        // Publicar la etiqueta antes que el tamaño y que la tabla de caracteres
+        labels = actuales;
+        sets = conjuntos;
+        size = nuevo + 1;
+        if (set != null && set.isSingleChar()) charIds.set(set.getRangeStart(0), nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Devuelve el simbolo de un caracter de entrada sin crear objetos
+     * @param c caracter leido
+     * @return simbolo o -1 si ningun automata utiliza el caracter
+     */
+    public static int lookup(char c) {
+        return charIds.get(c);
+    }
+
+    /**
+     * Devuelve el simbolo de una etiqueta sin crearlo
+     * @param label etiqueta a buscar
+     * @return simbolo o -1 si no existe
+     */
+    public static synchronized int lookup(String label) {
+        Integer id = ids.get(label);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Devuelve la etiqueta de un simbolo
+     * @param symbol entero del simbolo
+     * @return etiqueta original
+     */
+    public static String label(int symbol) {
+        return labels[symbol];
+    }
+
+    /**
+     * Devuelve el conjunto de caracteres de un simbolo
+     * @param symbol entero del simbolo
+     * @return conjunto de caracteres o null si el simbolo es epsilon o una etiqueta que no es de caracteres
+     */
+    public static CharSet charSet(int symbol) {
+        return sets[symbol];
+    }
+
+    /**
+     * Abre un alcance: los simbolos que se creen a partir de ahora se liberan al cerrarlo. Los alcances se pueden
+     * anidar y deben cerrarse en orden inverso. Mientras un alcance este abierto no deben compilarse en otros hilos
+     * expresiones que sigan en uso despues de cerrarlo, porque sus simbolos tambien se liberarian.
+     * @return alcance abierto, para usarse con try-with-resources
+     */
+    public static synchronized Scope openScope() {
+        return new Scope(size);
+    }
+
+    /**
+     * Libera los simbolos con id mayor o igual a una marca. Sus ids se vuelven a usar para simbolos nuevos.
+     */
+    private static synchronized void release(int mark) {
+        if (mark >= size) return;
+        for (int id = mark; id < size; id++) {
+            ids.remove(labels[id]);
+            if (sets[id] != null && sets[id].isSingleChar()) charIds.set(sets[id].getRangeStart(0), -1);
+            labels[id] = null;
+            sets[id] = null;
+        }
+        size = mark;
+        releaseMarks.add(mark);
+    }
+
+    /**
+     * Cantidad de liberaciones hechas hasta el momento, sirve para revisar despues con lowestReleaseSince si un
+     * automata usa simbolos liberados
+     */
+    public static synchronized int getReleaseCount() {
+        return releaseMarks.size();
+    }
+
+    /**
+     * Devuelve la menor marca liberada desde una cantidad de liberaciones. Un objeto cuyos simbolos son todos menores
+     * que ese valor sigue siendo valido.
+     * @param releaseCount valor de getReleaseCount al crear el objeto
+     * @return menor marca liberada despues o Integer.MAX_VALUE si no hubo liberaciones
+     */
+    public static synchronized int lowestReleaseSince(int releaseCount) {
+        int menor = Integer.MAX_VALUE;
+        for (int i = releaseCount; i < releaseMarks.size(); i++) menor = Math.min(menor, releaseMarks.get(i));
+        return menor;
+    }
+
+    /**
+     * Escribe un simbolo por su contenido (su conjunto de caracteres o, si no tiene, su etiqueta) para la
+     * serializacion de Java de los objetos que guardan simbolos
+     * @param out flujo de salida
+     * @param symbol simbolo a escribir
+     */
+    static void writeSymbol(ObjectOutputStream out, int symbol) throws IOException {
+        CharSet conjunto = charSet(symbol);
+        out.writeObject(conjunto);
+        if (conjunto == null) out.writeUTF(label(symbol));
+    }
+
+    /**
+     * Lee un simbolo escrito con writeSymbol y lo interna en la tabla de este proceso
+     * @param in flujo de entrada
+     * @return simbolo en la tabla de este proceso
+     */
+    static int readSymbol(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        CharSet conjunto = (CharSet) in.readObject();
+        return conjunto != null ? intern(conjunto) : intern(in.readUTF());
+    }
+
+    /**
+     * Cantidad de simbolos creados hasta el momento
+     * @return tamaño de la tabla
+     */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * Alcance de simbolos abierto con openScope
+     */
+    public static final class Scope implements AutoCloseable {
+        private final int mark;  // Tamaño de la tabla al abrir el alcance
+        private boolean closed = false;
+
+        private Scope(int mark) {
+            this.mark = mark;
+        }
+
+        /**
+         * Libera los simbolos creados desde que se abrio el alcance. Cerrarlo de nuevo no hace nada.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            release(mark);
+        }
+    }
+}
@@ -16,29 +16,28 @@ public class TestAutomatonCreators  implements Serializable {
          */
         Scanner scanner = new Scanner(System.in);
         System.out.println("Ingrese su expresion regular para construccion directa(! es epsilon):");
-        String regex, inputRegex;
+        String inputRegex;
         inputRegex = scanner.next();
 
         /**
          * Crear objetos para procesos
          */
-        RegExToNFA regExToNFA = new RegExToNFA();  // Conversor de regex a NFA
         NFAToDFA nfaToDFA = new NFAToDFA();
         HopcroftMinimizator hopcroftMinimizator = new HopcroftMinimizator();
         RegExToDFA regExToDFA = new RegExToDFA();
         long startTime, finishTime;
 
         /**
-         * Normalizar expresion a evaluar y conviertir a postfix
+         * Crear arbol sintactico de la expresion a evaluar
          */
-        regex = RegExConverter.infixToPostfix(inputRegex);
-        System.out.println(regex);
+        RegExNode arbol = RegExParser.parse(inputRegex);
+        System.out.println(arbol.toPostfix());
 
         /**
          * Crear NFA
          */
         startTime = System.nanoTime();  // Tomar tiempo
-        DirectedGraph nfa = regExToNFA.evaluate(regex);
+        DirectedGraph nfa = RegExCache.getShared().nfa(inputRegex);
         finishTime = System.nanoTime();  // Tomar tiempo
 
         double tiempo = (finishTime - startTime) / 1000000.0;  // Diferencia
@@ -125,12 +124,8 @@ public class TestAutomatonCreators  implements Serializable {
         /**
          * Construccion directa de DFA
          */
-        // Procesar regex
-        regex = regExToDFA.augmentateRegex(inputRegex);  // Agregar eof al regex
-        regex = RegExConverter.infixToPostfix(regex);  // Convertir a postfix
-
         startTime = System.nanoTime();
-        DirectedGraph dfaDirecto = regExToDFA.createDFA(regex);
+        DirectedGraph dfaDirecto = regExToDFA.createDFA(arbol);  // Agrega el # del final al arbol
         finishTime = System.nanoTime();  // Tomar tiempo
 
         // Mostrar tiempo